@@ -23,6 +23,7 @@ import gplayer.com.prefs.GPlayerPreferences;
 import gplayer.com.prefs.GPlayerSettings;
 import gplayer.com.service.DataSerializer;
 import gplayer.com.service.FileMedia;
+import gplayer.com.service.MediaInfoCodec;
 import gplayer.com.util.Utility;
 
 import java.io.File;
@@ -30,7 +31,6 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 
 import java.net.URL;
 
@@ -62,7 +62,7 @@ public class GPlayer extends Application {
     private static boolean systemTrayIsSupported = false;
     public static final URL DEFAULT_CSS = GPlayer.class.getResource("/resources/css/theme.css");  //CSS file from which app window and controls are styled
     public static final String PREFS_ROOT = "gplayer/current_user";  //The base node for registry-based media data
-    public static final GPlayerPreferences PREFERENCES = new GPlayerPreferences(PREFS_ROOT.concat("/media/info"), "");  //media playback registry node
+    public static final GPlayerPreferences PREFERENCES = new GPlayerPreferences(PREFS_ROOT.concat("/media/info"), "", 2000, "mediaStopPosition", "volumeLevel", "filePosition", "currentFile");  //media playback registry node, its frequently updated keys written behind every 2 seconds
     public static final int LAST_PROGRAM_EXECUTION_PHASE = PREFERENCES.getUserPreferences().getInt("programExecutionPhase", 0);  //Denotes various stages of program execution (-1, 1, 0; starting, running, terminating, respectively)
     private static String className = GPlayer.class.getName();  //Definitive name of this class
     public static boolean platformExiting;  //Flags true if the program is to exit, and false otherwise
@@ -102,8 +102,8 @@ public class GPlayer extends Application {
             prepareLogFile(LOGGER, "logs/".concat(className + ".log"));
             LOGGER.info("Initializing application");
             resource = BaseResourcePacket.getPacket("GPlayerResource");
-            boolean enabled = GPlayerSettings.programPrefs().getBoolean("enableAppTimeout", false);
-            exitTime = (enabled)? GPlayerSettings.programPrefs().get("appTimeout", Utility.formatTime(3, 0)): "...";
+            boolean enabled = GPlayerSettings.settings().enableAppTimeout();
+            exitTime = (enabled)? GPlayerSettings.settings().appTimeout(): "...";
             PREFERENCES.getUserPreferences().putInt("programExecutionPhase", -1);  //Portrays program initialization phase
         }
         else {
@@ -184,11 +184,14 @@ public class GPlayer extends Application {
         fileMedia.updateMediaInfo(true);
         fileMedia.quitApplicationIn("...");
         PREFERENCES.getUserPreferences().putInt("programExecutionPhase", 0);  //Portrays program exit phase
+        PREFERENCES.flush();
+        GPlayerSettings.flush();
+        LOGGER.info("Media info preference writes absorbed: " + PREFERENCES.getAbsorbedWrites());
         platformExiting = true;
     }
 
-    /**Opens an output stream to a file
-    *and writes/serializes DataSerializer info to that file
+    /**Opens a channel to a file
+    *and writes DataSerializer info to that file in MediaInfoCodec's binary format
     *for future recovery.
     *@param file
     *the name of the file to which an output stream is to be opened on
@@ -199,11 +202,10 @@ public class GPlayer extends Application {
     */
     public static File serializeMediaInfo(String file, DataSerializer serialization) {
         //Let's try writing the passed info to the passed file
-        try(ObjectOutputStream outputStream = new ObjectOutputStream(new FileOutputStream(file))) {
-            //If file is successfully opened
+        try {
             LOGGER.info("About to sync media info");
             //Write out the passed information to the file
-            outputStream.writeObject(serialization);
+            MediaInfoCodec.encode(java.nio.file.Paths.get(file), serialization);
             //Then,
             LOGGER.info("Data sync was successful");
             return new File(file);
@@ -215,7 +217,9 @@ public class GPlayer extends Application {
         }
     }
 
-    /**Deserializes media info
+    /**Deserializes media info,
+    *written either in MediaInfoCodec's binary format,
+    *or, by earlier versions of this app, with an ObjectOutputStream.
     *@param file
     *the name of the serialized file
     *@throws java.io.IOException
@@ -225,6 +229,9 @@ public class GPlayer extends Application {
     *@return the deserialized info if no exception occurs.
     */
     public static DataSerializer deserializeMediaInfo(String file) throws IOException, ClassNotFoundException {
+        java.nio.file.Path path = java.nio.file.Paths.get(file);
+        if (MediaInfoCodec.isEncoded(path))
+            return MediaInfoCodec.decode(path);
         try (ObjectInputStream inputStream = new ObjectInputStream(new FileInputStream(file))) {
             return (DataSerializer) inputStream.readObject();
         }
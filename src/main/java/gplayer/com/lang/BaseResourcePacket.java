@@ -169,6 +169,14 @@ return messagePattern;
         return numberFormatter.format(number);
     }
 
+    /**Gets a collator for the locale of this packet.
+    *Each call returns a copy, which the caller may adjust and use on any one thread.
+    *@return the collator
+    */
+    public synchronized Collator getCollator() {
+        return (Collator) collator.clone();
+    }
+
     public String getString(String key, int index) {
         Objects.requireNonNull(key);
         if (key.endsWith("array"))
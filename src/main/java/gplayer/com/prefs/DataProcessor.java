@@ -38,6 +38,10 @@ public class DataProcessor {
         prefs = gp.getUserPreferences();
     }
 
+    GPlayerPreferences getPreferences() {
+        return gp;
+    }
+
     public String getKey() {
         return key;
     }
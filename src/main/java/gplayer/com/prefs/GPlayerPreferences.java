@@ -29,6 +29,8 @@ import java.util.prefs.Preferences;
 public class GPlayerPreferences {
     private Preferences userPreferences;
     private Preferences systemPreferences;
+    private long writeBehindInterval;  //Interval at which user preference writes are flushed, or 0 if written through
+    private java.util.Set<String> writeBehindKeys;  //Keys of the user preferences written behind, or null if every key is
     public String userPath, systemPath;
 
     public GPlayerPreferences() {
@@ -48,14 +50,50 @@ public class GPlayerPreferences {
         setSystemPreferences(systemPreferences);
     }
 
+    /**constructor
+    *@param userPreferences
+    *used to create user-based java.util.prefs.Preferences node
+    *@param systemPreferences
+    *used to create system-based java.util.prefs.Preferences node
+    *@param writeBehindInterval
+    *the interval, in milliseconds, at which writes to the user node are written behind
+    */
+    public GPlayerPreferences(String userPreferences, String systemPreferences, long writeBehindInterval) {
+        this();
+        this.writeBehindInterval = writeBehindInterval;
+        setUserPreferences(userPreferences);
+        setSystemPreferences(systemPreferences);
+    }
+
+    /**constructor
+    *@param userPreferences
+    *used to create user-based java.util.prefs.Preferences node
+    *@param systemPreferences
+    *used to create system-based java.util.prefs.Preferences node
+    *@param writeBehindInterval
+    *the interval, in milliseconds, at which writes of the given keys to the user node are written behind
+    *@param writeBehindKeys
+    *the keys written behind; writes of other keys are written through
+    */
+    public GPlayerPreferences(String userPreferences, String systemPreferences, long writeBehindInterval, String... writeBehindKeys) {
+        this();
+        this.writeBehindInterval = writeBehindInterval;
+        this.writeBehindKeys = new java.util.HashSet<>(java.util.Arrays.asList(writeBehindKeys));
+        setUserPreferences(userPreferences);
+        setSystemPreferences(systemPreferences);
+    }
+
     /**Sets userPreferences to point to a particular user node
     *@param userPath
     *the path to the node in the registry
     */
     public void setUserPreferences(String userPath) {
         this.userPath = userPath;
-        if (userPath != null && !userPath.isEmpty())
+        if (userPath != null && !userPath.isEmpty()) {
             userPreferences = Preferences.userRoot().node(userPath);
+            if (writeBehindInterval > 0)
+                userPreferences = (writeBehindKeys == null)? new WriteBehindPreferences(userPreferences, writeBehindInterval): new WriteBehindPreferences(userPreferences, writeBehindInterval, writeBehindKeys);
+        }
     }
 
     /**Sets userPreferences to point to a particular system node
@@ -82,6 +120,22 @@ public class GPlayerPreferences {
         return systemPreferences;
     }
 
+    /**Writes pending user preference writes through to the backing store.*/
+    public void flush() {
+        try {
+            userPreferences.flush();
+        }
+        catch (java.util.prefs.BackingStoreException ex) {}
+    }
+
+    /**Gets the number of user preference writes absorbed by write-behind,
+    *that is, superseded before they reached the backing store.
+    *@return the number of absorbed writes, or 0 if writes aren't written behind
+    */
+    public long getAbsorbedWrites() {
+        return (userPreferences instanceof WriteBehindPreferences)? ((WriteBehindPreferences) userPreferences).getAbsorbedWrites(): 0;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
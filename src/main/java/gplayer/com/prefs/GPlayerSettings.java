@@ -25,6 +25,8 @@ import gplayer.com.util.Utility;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
@@ -73,12 +75,20 @@ public class GPlayerSettings extends gplayer.com.util.PopupStage {
     public static final ObservableList<String> exitTimeOptions = FXCollections.observableArrayList(Utility.generateHoursStringTimeFormat(1, 10, 5, 10, 15, 20, 30, 45));
     public static final String[] fileGroup = resource.getStringArray("fileGroup.array"), searchParameters = resource.getStringArray("searchParameters.array");
     public static final String[] recentPlayListOptions = resource.getStringArray("recentPlayListOptions.array"), mostPlayedPlayListOptions = resource.getStringArray("mostPlayedPlayListOptions.array");
+    private static final ObservableList<Integer> smartShuffleWindowOptions = FXCollections.observableArrayList(10, 25, 50, 100, 200);
+    private static final long SETTINGS_WRITE_BEHIND_INTERVAL = 10000;  //In milliseconds
     public static final String GENERAL_PREFERENCES_PATH = GPlayer.PREFS_ROOT.concat("/settings/general_preferences");
     public static final String PLAYBACK_PREFERENCES_PATH = GPlayer.PREFS_ROOT.concat("/settings/playback_preferences");
     public static final String PLAYLIST_PREFERENCES_PATH = GPlayer.PREFS_ROOT.concat("/settings/playlist_preferences");
     public static final String VIEW_PREFERENCES_PATH = GPlayer.PREFS_ROOT.concat("/settings/view_preferences");
     public static final String PROGRAM_PREFERENCES_PATH = GPlayer.PREFS_ROOT.concat("/settings/program_preferences");
     public static final GPlayerPreferences GENERAL_PREFERENCES = userPreferences(GENERAL_PREFERENCES_PATH), PLAYBACK_PREFERENCES = userPreferences(PLAYBACK_PREFERENCES_PATH), PLAYLIST_PREFERENCES = userPreferences(PLAYLIST_PREFERENCES_PATH), VIEW_PREFERENCES = userPreferences(VIEW_PREFERENCES_PATH), PROGRAM_PREFERENCES = userPreferences(PROGRAM_PREFERENCES_PATH);
+    private static volatile SettingsSnapshot settings = new SettingsSnapshot();  //The settings, as last applied
+    private static final java.util.List<BiConsumer<SettingsSnapshot, SettingsSnapshot>> settingsListeners = new CopyOnWriteArrayList<>();
+
+    static {
+        SettingsTransaction.addReaction(() -> Platform.runLater(() -> Platform.setImplicitExit(!settings.implicitExit())), "implicitExit");
+    }
 
     /**constructor
     *@param primaryStage
@@ -132,8 +142,8 @@ public class GPlayerSettings extends gplayer.com.util.PopupStage {
         applyButton.setDisable(true);
         applyButton.setOnAction((ae) -> {
             final Map<String, DataProcessor> m = map;
-            //Save the changes made on a background thread
-            new Thread(() -> applyChanges(m)).start();
+            //Save the changes made as one transaction, on a background thread
+            applyChanges(m);
             //Instantiate a new Map object to track further changes
             map = new HashMap<>();
         });
@@ -257,27 +267,43 @@ public class GPlayerSettings extends gplayer.com.util.PopupStage {
 
     private void applyChanges(Map<String, DataProcessor> map) {
         boolean isDefault = map == defaultMap;
-        //Obtain a set of the keys in map
-        Set<String> keys = map.keySet();
-        for (String key: keys) {
-            DataProcessor value = map.get(key);
-            value.processData();
-            if (value.getKey().equals("implicitExit"))
-                Platform.runLater(() -> Platform.setImplicitExit(!(boolean)value.getValue()));
-            if (!isDefault && defaultMapClone.containsKey(key)) {
-                DataProcessor m = defaultMapClone.get(key);
-                if (value.equals(m))
-                    defaultMap.remove(key);
-                else
-                    defaultMap.put(key, m);
+        new SettingsTransaction(map).submit();
+        if (!isDefault) {
+            for (Map.Entry<String, DataProcessor> entry: map.entrySet()) {
+                String key = entry.getKey();
+                if (defaultMapClone.containsKey(key)) {
+                    DataProcessor m = defaultMapClone.get(key);
+                    if (entry.getValue().equals(m))
+                        defaultMap.remove(key);
+                    else
+                        defaultMap.put(key, m);
+                }
             }
         }
-        if (isDefault)
+        else
             map.clear();
         defaultButton.setDisable(defaultMap.isEmpty());
         applyButton.setDisable(true);
     }
 
+    /**Replaces the settings snapshot with one read from the preference nodes,
+    *and notifies the settings listeners if it differs from the one it replaces.
+    */
+    static synchronized void publishSettings() {
+        SettingsSnapshot oldSettings = settings, newSettings = new SettingsSnapshot();
+        if (newSettings.equals(oldSettings))
+            return;
+        settings = newSettings;
+        for (BiConsumer<SettingsSnapshot, SettingsSnapshot> listener: settingsListeners) {
+            try {
+                listener.accept(oldSettings, newSettings);
+            }
+            catch (RuntimeException ex) {
+                GPlayer.LOGGER.log(Level.WARNING, "Settings listener failed", ex);
+            }
+        }
+    }
+
     private void discardChanges(Map<String, DataProcessor> m) {
         m.keySet().forEach((key) -> map.remove(key));
         defaultButton.setDisable(defaultMap.isEmpty());
@@ -285,9 +311,9 @@ public class GPlayerSettings extends gplayer.com.util.PopupStage {
     }
 
     private static GPlayerPreferences userPreferences(String path) {
-        GPlayerPreferences gp = new GPlayerPreferences();
-        gp.setUserPreferences(path);
-        return gp;
+        //Settings transactions flush the nodes they write to,
+        //so writes are held back till the whole batch is written
+        return new GPlayerPreferences(path, null, SETTINGS_WRITE_BEHIND_INTERVAL);
     }
 
     @SuppressWarnings("unchecked")
@@ -303,6 +329,9 @@ public class GPlayerSettings extends gplayer.com.util.PopupStage {
                 cb.setCellFactory((javafx.scene.control.ListView<T> l) -> new NumberLocalizer());
                 method = myClass.getDeclaredMethod("getDouble", String.class, double.class);
             }
+            else if (defaultValue instanceof Integer) {
+                method = myClass.getDeclaredMethod("getInt", String.class, int.class);
+            }
             final java.lang.reflect.Method m = method;
             T object = (T) method.invoke(gp.getUserPreferences(), key, defaultValue);
             if (object != null) {
@@ -599,6 +628,14 @@ public class GPlayerSettings extends gplayer.com.util.PopupStage {
         checkBox = new CheckBox(texts[5]);
         managePreferences(defaultMap, defaultMapClone, prefs, "unplayableFiles", checkBox, true);
         gridPane.add(gridLayout(checkBox), 1, 2);
+        checkBox = new CheckBox(texts[6]);
+        managePreferences(defaultMap, defaultMapClone, prefs, "smartShuffle", checkBox, false);
+        gridPane.add(gridLayout(checkBox), 0, 3);
+        ComboBox<Integer> ci = new ComboBox<>(smartShuffleWindowOptions);
+        label = createLabel(ci, texts[7]);
+        managePreferences(defaultMap, defaultMapClone, prefs, "smartShuffleWindow", ci, 25);
+        ci.disableProperty().bind(checkBox.selectedProperty().not());
+        gridPane.add(gridLayout(label, ci), 1, 3);
         Tab tab = createTab(resource.getString("playListTab.name"), gridPane);
         LOGGER.info("Done initializing contents of the playlist tab");
         return tab;
@@ -697,6 +734,38 @@ public class GPlayerSettings extends gplayer.com.util.PopupStage {
         return PROGRAM_PREFERENCES.getUserPreferences();
     }
 
+    /**Writes pending settings through to the backing store.*/
+    public static void flush() {
+        for (GPlayerPreferences gp: new GPlayerPreferences[] {GENERAL_PREFERENCES, PLAYBACK_PREFERENCES, PLAYLIST_PREFERENCES, VIEW_PREFERENCES, PROGRAM_PREFERENCES})
+            gp.flush();
+    }
+
+    /**Obtains the settings read on hot paths, as last applied.
+    *The snapshot is immutable, and is replaced whenever settings are applied,
+    *so it is cheaper to read than the preference nodes.
+    *@return the current settings snapshot
+    */
+    public static SettingsSnapshot settings() {
+        return settings;
+    }
+
+    /**Registers a listener notified with the old and new snapshots whenever applied settings change.
+    *Listeners are notified on the thread that applied the settings.
+    *@param listener
+    *the listener to register
+    */
+    public static void addSettingsListener(BiConsumer<SettingsSnapshot, SettingsSnapshot> listener) {
+        settingsListeners.add(listener);
+    }
+
+    /**Unregisters a settings listener.
+    *@param listener
+    *the listener to unregister
+    */
+    public static void removeSettingsListener(BiConsumer<SettingsSnapshot, SettingsSnapshot> listener) {
+        settingsListeners.remove(listener);
+    }
+
     private static ObservableList<String> getNotificationTimeOptions() {
         ObservableList<String> obs = FXCollections.observableArrayList(Utility.generateMinutesStringTimeFormat(0, 1, 2, 3, 5, 10, 15, 20, 30, 45));
         obs.addAll(Utility.formatTime(2, 1), Utility.formatTime(3, 1), Utility.formatTime(5, 1), Utility.formatTime(10, 1), Utility.formatTime(15, 1));
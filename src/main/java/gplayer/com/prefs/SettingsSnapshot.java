@@ -0,0 +1,210 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.prefs;
+
+import gplayer.com.util.Utility;
+
+import java.util.Arrays;
+import java.util.prefs.Preferences;
+
+/**An immutable, typed copy of the settings read on hot paths,
+*(every played file, focus change and playlist modification),
+*published by GPlayerSettings whenever settings are applied,
+*so that reading a setting costs a single volatile read,
+*rather than a java.util.prefs lookup.
+*@author Ganiyu Emilandu
+*/
+
+public final class SettingsSnapshot {
+    private final boolean wrapNext, wrapPrevious, mediaMark, showMediaMarkDialog;
+    private final String mediaMarkTime;
+    private final boolean revertSpeedRate;
+    private final double speedRate, speedLowestValue, speedHighestValue, speedStepLevel;
+    private final String forwardJumpTime, backwardJumpTime;
+    private final boolean unavailableFiles, unplayableFiles;
+    private final int recentPlayListLimit;
+    private final boolean smartShuffle;
+    private final int smartShuffleWindow;
+    private final boolean windowViewOnly, stageViewOnly, displayLibrary, executeNotificationTask;
+    private final String notificationTime;
+    private final boolean implicitExit, enableAppTimeout;
+    private final String appTimeout;
+
+    /**Reads the current settings.*/
+    SettingsSnapshot() {
+        Preferences general = GPlayerSettings.generalPrefs();
+        wrapNext = general.getBoolean("wrapNext", true);
+        wrapPrevious = general.getBoolean("wrapPrevious", true);
+        mediaMark = general.getBoolean("mediaMark", true);
+        showMediaMarkDialog = general.getBoolean("showMediaMarkDialog", true);
+        mediaMarkTime = general.get("mediaMarkTime", Utility.formatTime(1, 1));
+        Preferences playBack = GPlayerSettings.playBackPrefs();
+        revertSpeedRate = playBack.getBoolean("revertSpeedRate", false);
+        speedRate = playBack.getDouble("speedRate", 1.0);
+        speedLowestValue = playBack.getDouble("speedLowestValue", 0.8);
+        speedHighestValue = playBack.getDouble("speedHighestValue", 1.5);
+        speedStepLevel = playBack.getDouble("speedStepLevel", 0.05);
+        forwardJumpTime = playBack.get("forwardJumpTime", Utility.formatTime(20, 2));
+        backwardJumpTime = playBack.get("backwardJumpTime", Utility.formatTime(10, 2));
+        Preferences playList = GPlayerSettings.playListPrefs();
+        unavailableFiles = playList.getBoolean("unavailableFiles", true);
+        unplayableFiles = playList.getBoolean("unplayableFiles", true);
+        recentPlayListLimit = playList.getInt("recentPlayListLimit", 0);
+        smartShuffle = playList.getBoolean("smartShuffle", false);
+        smartShuffleWindow = playList.getInt("smartShuffleWindow", 25);
+        Preferences view = GPlayerSettings.viewPrefs();
+        windowViewOnly = view.getBoolean("windowViewOnly", false);
+        stageViewOnly = view.getBoolean("stageViewOnly", true);
+        displayLibrary = view.getBoolean("displayLibrary", false);
+        executeNotificationTask = view.getBoolean("executeNotificationTask", true);
+        notificationTime = view.get("notificationTime", Utility.formatTime(5, 2));
+        Preferences program = GPlayerSettings.programPrefs();
+        implicitExit = program.getBoolean("implicitExit", true);
+        enableAppTimeout = program.getBoolean("enableAppTimeout", false);
+        appTimeout = program.get("appTimeout", Utility.formatTime(3, 0));
+    }
+
+    public boolean wrapNext() {
+        return wrapNext;
+    }
+
+    public boolean wrapPrevious() {
+        return wrapPrevious;
+    }
+
+    public boolean mediaMark() {
+        return mediaMark;
+    }
+
+    public boolean showMediaMarkDialog() {
+        return showMediaMarkDialog;
+    }
+
+    public String mediaMarkTime() {
+        return mediaMarkTime;
+    }
+
+    public boolean revertSpeedRate() {
+        return revertSpeedRate;
+    }
+
+    public double speedRate() {
+        return speedRate;
+    }
+
+    public double speedLowestValue() {
+        return speedLowestValue;
+    }
+
+    public double speedHighestValue() {
+        return speedHighestValue;
+    }
+
+    public double speedStepLevel() {
+        return speedStepLevel;
+    }
+
+    public String forwardJumpTime() {
+        return forwardJumpTime;
+    }
+
+    public String backwardJumpTime() {
+        return backwardJumpTime;
+    }
+
+    public boolean unavailableFiles() {
+        return unavailableFiles;
+    }
+
+    public boolean unplayableFiles() {
+        return unplayableFiles;
+    }
+
+    /**Gets the number of files kept in recentPlayList;
+    *files played less recently are left to the play history of the library store.
+    *@return the limit, or a value less than 1 if unlimited
+    */
+    public int recentPlayListLimit() {
+        return recentPlayListLimit;
+    }
+
+    /**Ascertains if shuffling puts off the most recently played files.
+    *@return true if so, and false otherwise
+    */
+    public boolean smartShuffle() {
+        return smartShuffle;
+    }
+
+    /**Gets the number of most recently played files a smart shuffle puts off.
+    *@return the number of files
+    */
+    public int smartShuffleWindow() {
+        return smartShuffleWindow;
+    }
+
+    public boolean windowViewOnly() {
+        return windowViewOnly;
+    }
+
+    public boolean stageViewOnly() {
+        return stageViewOnly;
+    }
+
+    public boolean displayLibrary() {
+        return displayLibrary;
+    }
+
+    public boolean executeNotificationTask() {
+        return executeNotificationTask;
+    }
+
+    public String notificationTime() {
+        return notificationTime;
+    }
+
+    public boolean implicitExit() {
+        return implicitExit;
+    }
+
+    public boolean enableAppTimeout() {
+        return enableAppTimeout;
+    }
+
+    public String appTimeout() {
+        return appTimeout;
+    }
+
+    private Object[] values() {
+        return new Object[] {wrapNext, wrapPrevious, mediaMark, showMediaMarkDialog, mediaMarkTime, revertSpeedRate, speedRate, speedLowestValue, speedHighestValue, speedStepLevel, forwardJumpTime, backwardJumpTime, unavailableFiles, unplayableFiles, recentPlayListLimit, smartShuffle, smartShuffleWindow, windowViewOnly, stageViewOnly, displayLibrary, executeNotificationTask, notificationTime, implicitExit, enableAppTimeout, appTimeout};
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj instanceof SettingsSnapshot)
+            return Arrays.equals(values(), ((SettingsSnapshot) obj).values());
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values());
+    }
+}
@@ -0,0 +1,118 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.prefs;
+
+import gplayer.com.exec.GPlayer;
+import gplayer.com.util.SerialTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+/**Applies a batch of setting changes as one unit.
+*The changed values are written to their preference nodes,
+*each node is flushed to the backing store once,
+*the settings snapshot is republished once,
+*and every reaction registered against any of the changed keys runs once,
+*however many of its keys the batch changes.
+*Transactions are committed serially, in order of submission, on a background thread.
+*@author Ganiyu Emilandu
+*/
+
+public final class SettingsTransaction {
+    private static final SerialTaskExecutor executor = new SerialTaskExecutor("Settings transaction");
+    private static final Map<String, List<Runnable>> reactions = new ConcurrentHashMap<>();  //Maps a setting key to the reactions dependent on it
+    private final Map<String, DataProcessor> changes;
+
+    /**Creates a new instance of this class.
+    *@param changes
+    *the changed settings, keyed by setting key.
+    *The map is copied, so may be modified once this returns.
+    */
+    public SettingsTransaction(Map<String, DataProcessor> changes) {
+        this.changes = Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+    }
+
+    /**Registers a reaction to be run after any transaction changing any of the specified keys.
+    *A reaction runs at most once per transaction, on the transaction thread.
+    *@param reaction
+    *the reaction to run
+    *@param keys
+    *the setting keys the reaction depends on
+    */
+    public static void addReaction(Runnable reaction, String... keys) {
+        for (String key: keys)
+            reactions.computeIfAbsent(key, (k) -> new CopyOnWriteArrayList<>()).add(reaction);
+    }
+
+    /**Unregisters a reaction from all keys it was registered against.
+    *@param reaction
+    *the reaction to unregister
+    */
+    public static void removeReaction(Runnable reaction) {
+        reactions.values().forEach((list) -> list.remove(reaction));
+    }
+
+    /**Gets the changed settings.
+    *@return an unmodifiable map of the changed settings
+    */
+    public Map<String, DataProcessor> getChanges() {
+        return changes;
+    }
+
+    /**Queues this transaction to be committed after any previously submitted.*/
+    public void submit() {
+        executor.run(this::commit);
+    }
+
+    /**Commits this transaction on the calling thread.*/
+    public void commit() {
+        if (changes.isEmpty())
+            return;
+        List<GPlayerPreferences> nodes = new ArrayList<>(5);
+        Set<Runnable> dependents = new LinkedHashSet<>();
+        for (Map.Entry<String, DataProcessor> entry: changes.entrySet()) {
+            DataProcessor value = entry.getValue();
+            value.processData();
+            GPlayerPreferences node = value.getPreferences();
+            if (!nodes.contains(node))
+                nodes.add(node);
+            List<Runnable> list = reactions.get(value.getKey());
+            if (list != null)
+                dependents.addAll(list);
+        }
+        nodes.forEach(GPlayerPreferences::flush);
+        GPlayerSettings.publishSettings();
+        for (Runnable reaction: dependents) {
+            try {
+                reaction.run();
+            }
+            catch (RuntimeException ex) {
+                GPlayer.LOGGER.log(Level.WARNING, "Settings reaction failed", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.prefs;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.prefs.AbstractPreferences;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**A preference node that keeps the latest values written to it in memory,
+*and writes them behind to a backing node at a bounded rate,
+*so that values updated many times a second,
+*(playback position, volume level),
+*reach the backing store at most once per flush interval.
+*Reads see pending values; flush() and sync() write them through immediately.
+*Writing behind may be confined to the frequently updated keys,
+*so that keys whose values must survive a crash, (such as a pointer to a file just written),
+*are written through, and reach the backing node as soon as they're put.
+*@author Ganiyu Emilandu
+*/
+
+public class WriteBehindPreferences extends AbstractPreferences {
+    private static final String REMOVED = new String("");  //Marks a pending removal, by identity
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "Preferences writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Preferences backingNode;
+    private final long interval;  //The flush interval, in milliseconds
+    private final Set<String> writeBehindKeys;  //Keys written behind, or null if every key is
+    private final Map<String, String> pending = new HashMap<>();  //Values yet to be written to the backing node
+    private boolean scheduled;  //Flags a pending flush
+    private final AtomicLong writes = new AtomicLong(), absorbedWrites = new AtomicLong();
+
+    /**Creates a new instance of this class.
+    *@param backingNode
+    *the node to which values are written behind
+    *@param interval
+    *the flush interval, in milliseconds
+    */
+    public WriteBehindPreferences(Preferences backingNode, long interval) {
+        this(null, "", backingNode, interval, null);
+    }
+
+    /**Creates a new instance of this class,
+    *which writes behind only the values of the given keys, and writes through the rest.
+    *@param backingNode
+    *the node to which values are written
+    *@param interval
+    *the flush interval, in milliseconds
+    *@param writeBehindKeys
+    *the keys whose values are written behind
+    */
+    public WriteBehindPreferences(Preferences backingNode, long interval, Set<String> writeBehindKeys) {
+        this(null, "", backingNode, interval, new HashSet<>(writeBehindKeys));
+    }
+
+
+    private WriteBehindPreferences(WriteBehindPreferences parent, String name, Preferences backingNode, long interval, Set<String> writeBehindKeys) {
+        super(parent, name);
+        this.backingNode = backingNode;
+        this.interval = Math.max(0, interval);
+        this.writeBehindKeys = writeBehindKeys;
+    }
+
+    /**Gets the number of writes made to this node.
+    *@return the number of writes
+    */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    /**Gets the number of writes superseded in memory,
+    *before they could reach the backing node.
+    *@return the number of absorbed writes
+    */
+    public long getAbsorbedWrites() {
+        return absorbedWrites.get();
+    }
+
+    @Override
+    public boolean isUserNode() {
+        return backingNode.isUserNode();
+    }
+
+    @Override
+    protected void putSpi(String key, String value) {
+        writeBehind(key, value);
+    }
+
+    @Override
+    protected String getSpi(String key) {
+        String value = pending.get(key);
+        if (value == null)
+            return backingNode.get(key, null);
+        return (value == REMOVED)? null: value;
+    }
+
+    @Override
+    protected void removeSpi(String key) {
+        writeBehind(key, REMOVED);
+    }
+
+    @Override
+    protected void removeNodeSpi() throws BackingStoreException {
+        synchronized (lock) {
+            pending.clear();
+        }
+        backingNode.removeNode();
+    }
+
+    @Override
+    protected String[] keysSpi() throws BackingStoreException {
+        Set<String> keys = new LinkedHashSet<>(java.util.Arrays.asList(backingNode.keys()));
+        for (Map.Entry<String, String> entry: pending.entrySet()) {
+            if (entry.getValue() == REMOVED)
+                keys.remove(entry.getKey());
+            else
+                keys.add(entry.getKey());
+        }
+        return keys.toArray(new String[keys.size()]);
+    }
+
+    @Override
+    protected String[] childrenNamesSpi() throws BackingStoreException {
+        return backingNode.childrenNames();
+    }
+
+    @Override
+    protected AbstractPreferences childSpi(String name) {
+        return new WriteBehindPreferences(this, name, backingNode.node(name), interval, writeBehindKeys);
+    }
+
+    @Override
+    protected void syncSpi() throws BackingStoreException {
+        writePending();
+        backingNode.sync();
+    }
+
+    @Override
+    protected void flushSpi() throws BackingStoreException {
+        writePending();
+        backingNode.flush();
+    }
+
+
+    private void writeBehind(String key, String value) {
+        if (writeBehindKeys != null && !writeBehindKeys.contains(key)) {
+            //Written through, superseding any pending value
+            pending.remove(key);
+            if (value == REMOVED)
+                backingNode.remove(key);
+            else
+                backingNode.put(key, value);
+            return;
+        }
+        writes.incrementAndGet();
+        if (pending.put(key, value) != null)
+            absorbedWrites.incrementAndGet();
+        if (!scheduled) {
+            scheduled = true;
+            executor.schedule(this::writePending, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    /**Writes the pending values to the backing node.
+    *The lock is held throughout, so that a read never misses a value on its way to the backing node.
+    */
+    private void writePending() {
+        synchronized (lock) {
+            scheduled = false;
+            for (Map.Entry<String, String> entry: pending.entrySet()) {
+                if (entry.getValue() == REMOVED)
+                    backingNode.remove(entry.getKey());
+                else
+                    backingNode.put(entry.getKey(), entry.getValue());
+            }
+            pending.clear();
+        }
+    }
+}
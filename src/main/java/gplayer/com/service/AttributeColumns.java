@@ -0,0 +1,178 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**Caches the file attributes by which a playlist may be sorted,
+*(size and last modified time, as read from the filesystem,
+*and last played time and media duration, as held by the library store),
+*in primitive columns, one row per file,
+*so that a sort compares cached numbers rather than stat the filesystem per comparison.
+*Rows are filled in bulk, with the filesystem read in parallel on every fill,
+*and the library store read again, in one batch, only for files whose size or last modified time changed,
+*or which were played since, so that a sort sees the current state of each file.
+*@author Ganiyu Emilandu
+*/
+
+final class AttributeColumns {
+    private int[] rows = new int[0];  //Maps a FileRegistry id to its row, offset by 1, so that 0 marks a file without a row
+    private int count;  //The number of rows
+    private long[] sizes = new long[0], modifiedTimes = new long[0], lastPlayedTimes = new long[0];
+    private double[] durations = new double[0];
+    private final BitSet current = new BitSet();  //Marks the rows whose library store attributes are current
+
+    /**Fills the rows of the files of a list,
+    *reading the library store only for files which have no row yet, or whose rows are stale.
+    *@param ids
+    *the FileRegistry ids of the files
+    *@param store
+    *the library store, from which last played times and durations are read
+    */
+    synchronized void fill(int[] ids, LibraryStore store) {
+        int[] listed = new int[ids.length];
+        int listedCount = 0;
+        BitSet seen = new BitSet();  //Keeps a file listed twice from being read twice
+        for (int id: ids) {
+            if (id < 0)
+                continue;
+            if (id >= rows.length)
+                rows = Arrays.copyOf(rows, Math.max(id + 1, rows.length * 2));
+            if (rows[id] == 0) {
+                if (count == sizes.length)
+                    grow();
+                rows[id] = ++count;
+                current.clear(count - 1);
+            }
+            int row = rows[id] - 1;
+            if (!seen.get(row)) {
+                seen.set(row);
+                listed[listedCount++] = id;
+            }
+        }
+        //Rows are distinct, and the columns aren't resized from here on, so the filesystem is read concurrently
+        int[] distinct = Arrays.copyOf(listed, listedCount);
+        boolean[] changed = new boolean[listedCount];
+        IntStream.range(0, listedCount).parallel().forEach((i) -> changed[i] = stat(rows[distinct[i]] - 1, FileRegistry.file(distinct[i])));
+        //The library store is read on this thread alone, in one batch
+        int staleCount = 0;
+        for (int i = 0; i < listedCount; i++)
+            if (changed[i] || !current.get(rows[distinct[i]] - 1))
+                distinct[staleCount++] = distinct[i];
+        File[] files = new File[staleCount];
+        for (int i = 0; i < staleCount; i++)
+            files[i] = FileRegistry.file(distinct[i]);
+        LibraryStore.Entry[] entries = store.get(files);
+        for (int i = 0; i < staleCount; i++) {
+            int row = rows[distinct[i]] - 1;
+            LibraryStore.Entry entry = entries[i];
+            lastPlayedTimes[row] = (entry == null)? 0: entry.lastPlayed;
+            durations[row] = (entry == null || Double.isNaN(entry.duration))? -1: entry.duration;
+            current.set(row);
+        }
+    }
+
+
+    //Reads the size and last modified time of a file into a row, telling whether either changed
+    private boolean stat(int row, File file) {
+        long size, modifiedTime;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            size = attributes.size();
+            modifiedTime = attributes.lastModifiedTime().toMillis();
+        }
+        catch (Exception ex) {
+            size = modifiedTime = -1;
+        }
+        boolean changed = size != sizes[row] || modifiedTime != modifiedTimes[row];
+        sizes[row] = size;
+        modifiedTimes[row] = modifiedTime;
+        return changed;
+    }
+
+
+    private void grow() {
+        int capacity = Math.max(16, count * 2);
+        sizes = Arrays.copyOf(sizes, capacity);
+        modifiedTimes = Arrays.copyOf(modifiedTimes, capacity);
+        lastPlayedTimes = Arrays.copyOf(lastPlayedTimes, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+    }
+
+
+    private int row(int id) {
+        return (id >= 0 && id < rows.length)? rows[id] - 1: -1;
+    }
+
+    /**Gets the size of a file.
+    *@param id
+    *the FileRegistry id of the file
+    *@return the size, in bytes, or -1 if unknown
+    */
+    synchronized long size(int id) {
+        int row = row(id);
+        return (row < 0)? -1: sizes[row];
+    }
+
+    /**Gets the last modified time of a file.
+    *@param id
+    *the FileRegistry id of the file
+    *@return the time, in milliseconds since the epoch, or -1 if unknown
+    */
+    synchronized long modifiedTime(int id) {
+        int row = row(id);
+        return (row < 0)? -1: modifiedTimes[row];
+    }
+
+    /**Gets the time a file was last played.
+    *@param id
+    *the FileRegistry id of the file
+    *@return the time, in milliseconds since the epoch, or 0 if never played
+    */
+    synchronized long lastPlayedTime(int id) {
+        int row = row(id);
+        return (row < 0)? 0: lastPlayedTimes[row];
+    }
+
+    /**Gets the media duration of a file.
+    *@param id
+    *the FileRegistry id of the file
+    *@return the duration, in milliseconds, or -1 if the file was never played to learn it
+    */
+    synchronized double duration(int id) {
+        int row = row(id);
+        return (row < 0)? -1: durations[row];
+    }
+
+    /**Marks the library store attributes of a file stale,
+    *so that the next fill reads them again.
+    *@param id
+    *the FileRegistry id of the file
+    */
+    synchronized void invalidate(int id) {
+        int row = row(id);
+        if (row >= 0)
+            current.clear(row);
+    }
+}
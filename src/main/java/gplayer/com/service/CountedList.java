@@ -0,0 +1,71 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**An ArrayList which counts its modifications, replacements included, as PlayList does,
+*so that media info can be checked for changes without its contents being compared.
+*@author Ganiyu Emilandu
+*/
+
+final class CountedList<E> extends ArrayList<E> {
+    private static final long serialVersionUID = 1L;
+    private int replacements;  //Element replacements, which ArrayList doesn't count
+
+    /**Creates an empty list.*/
+    CountedList() {
+        super();
+    }
+
+    /**Creates a list containing the elements of a collection,
+    *in the order returned by its iterator.
+    *@param c
+    *the collection whose elements are to be placed into this list
+    */
+    CountedList(Collection<? extends E> c) {
+        super(c);
+    }
+
+    /**Gets a list which counts its modifications, holding the elements of a list.
+    *@param list
+    *the list
+    *@return the list itself, if it already counts its modifications, and a copy of it otherwise
+    */
+    @SuppressWarnings("unchecked")
+    static <E> CountedList<E> of(List<E> list) {
+        return (list instanceof CountedList)? (CountedList<E>) list: new CountedList<>(list);
+    }
+
+    /**Gets a number that changes whenever this list is modified.
+    *@return the modification count
+    */
+    long modificationCount() {
+        return (long) modCount + replacements;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        E previous = super.set(index, element);
+        replacements++;
+        return previous;
+    }
+}
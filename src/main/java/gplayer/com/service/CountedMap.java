@@ -0,0 +1,144 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**A LinkedHashMap which counts its modifications, replacements of values included,
+*so that media info can be checked for changes without its contents being compared.
+*Only modifications made through the map itself are counted, not those made through its views.
+*@author Ganiyu Emilandu
+*/
+
+final class CountedMap<K, V> extends LinkedHashMap<K, V> {
+    private static final long serialVersionUID = 1L;
+    private long modifications;
+
+    /**Creates an empty map.*/
+    CountedMap() {
+        super();
+    }
+
+    /**Creates a map containing the mappings of a map,
+    *in the order returned by its iterator.
+    *@param m
+    *the map whose mappings are to be placed into this map
+    */
+    CountedMap(Map<? extends K, ? extends V> m) {
+        super(m);
+    }
+
+    /**Gets a map which counts its modifications, holding the mappings of a map.
+    *@param map
+    *the map
+    *@return the map itself, if it already counts its modifications, and a copy of it otherwise
+    */
+    @SuppressWarnings("unchecked")
+    static <K, V> CountedMap<K, V> of(Map<K, V> map) {
+        return (map instanceof CountedMap)? (CountedMap<K, V>) map: new CountedMap<>(map);
+    }
+
+    /**Gets a number that changes whenever this map is modified.
+    *@return the modification count
+    */
+    long modificationCount() {
+        return modifications;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        modifications++;
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        modifications++;
+        super.putAll(m);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        modifications++;
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        modifications++;
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        modifications++;
+        return super.remove(key, value);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        modifications++;
+        return super.replace(key, value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        modifications++;
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        modifications++;
+        super.replaceAll(function);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        modifications++;
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        modifications++;
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        modifications++;
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        modifications++;
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public void clear() {
+        modifications++;
+        super.clear();
+    }
+}
@@ -24,7 +24,6 @@ import gplayer.com.util.Trio;
 import static gplayer.com.util.Utility.ofEqualContent;
 import java.io.File;
 import java.io.Serializable;
-import java.util.LinkedList;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.LinkedHashMap;
@@ -40,25 +39,28 @@ import javafx.util.Duration;
 */
 
 public class DataSerializer implements Serializable {
+    private static final long serialVersionUID = -3760042841320638268L;  //Pinned to the value computed before journalSequence was introduced
     boolean isMarked;
     int filePosition;
-    LinkedList<File> playListEntry;
-    LinkedList<File> recentPlayList, mostRecentPlayList;
-    LinkedList<File> playedPlayList;
-    LinkedList<File> mostPlayedPlayList;
-    LinkedList<File> defaultPlayingPlayList;
-    LinkedList<File> favouritePlayList;
+    PlayList playListEntry;
+    PlayList recentPlayList, mostRecentPlayList;
+    PlayList playedPlayList;
+    PlayList mostPlayedPlayList;
+    PlayList defaultPlayingPlayList;
+    PlayList favouritePlayList;
     ArrayList<Duration> durationTime;
     ArrayList<Integer> timesPlayed;
     LinkedHashMap<String, Trio<File, Duration, Boolean>> mediaDurationMap;
-    LinkedHashMap<String, Trio<String, LinkedList<File>, String>> createdPlayListMap;
-    Map<String, Trio<LinkedList<File>, FileFilter, FileSortParameter>> playListContents;
+    LinkedHashMap<String, Trio<String, PlayList, String>> createdPlayListMap;
+    Map<String, Trio<PlayList, FileFilter, FileSortParameter>> playListContents;
     File videoFileFolder;
     File audioFileFolder;
     File filesFileFolder;
     File currentFile;
     FileSortParameter PARAMETER;
-    DataSerializer(boolean im, int fp, LinkedList<File> ple, LinkedList<File> rpl, LinkedList<File> mrpl, LinkedList<File> ppl, LinkedList<File> mppl, LinkedList<File> dppl, LinkedList<File> fpl, ArrayList<Duration> dt, ArrayList<Integer> tp, LinkedHashMap<String, Trio<File, Duration, Boolean>> mdm, LinkedHashMap<String, Trio<String, LinkedList<File>, String>> cplm, Map<String, Trio<LinkedList<File>, FileFilter, FileSortParameter>> plc, File vff, File aff, File fff, FileSortParameter PAR) {
+    long journalSequence;  //Sequence of the last MediaJournal record contained in this snapshot
+    transient long headModificationCount;  //Modification count of the info of a captured copy, playlist contents excluded
+    DataSerializer(boolean im, int fp, PlayList ple, PlayList rpl, PlayList mrpl, PlayList ppl, PlayList mppl, PlayList dppl, PlayList fpl, ArrayList<Duration> dt, ArrayList<Integer> tp, LinkedHashMap<String, Trio<File, Duration, Boolean>> mdm, LinkedHashMap<String, Trio<String, PlayList, String>> cplm, Map<String, Trio<PlayList, FileFilter, FileSortParameter>> plc, File vff, File aff, File fff, FileSortParameter PAR) {
         isMarked = im;
         filePosition = fp;
         playListEntry = requireNonNull(ple);
@@ -68,17 +70,143 @@ public class DataSerializer implements Serializable {
         mostPlayedPlayList = requireNonNull(mppl);
         defaultPlayingPlayList = requireNonNull(dppl);
         favouritePlayList = requireNonNull(fpl);
-        durationTime = requireNonNull(dt);
-        timesPlayed = requireNonNull(tp);
-        mediaDurationMap = requireNonNull(mdm);
-        createdPlayListMap = requireNonNull(cplm);
-        playListContents = requireNonNull(plc);
+        //The lists and maps count their modifications, so that the media info can be checked for changes
+        durationTime = CountedList.of(requireNonNull(dt));
+        timesPlayed = CountedList.of(requireNonNull(tp));
+        mediaDurationMap = CountedMap.of(requireNonNull(mdm));
+        createdPlayListMap = CountedMap.of(requireNonNull(cplm));
+        playListContents = CountedMap.of(requireNonNull(plc));
         videoFileFolder = vff;
         audioFileFolder = aff;
         filesFileFolder = fff;
         PARAMETER = requireNonNull(PAR);
     }
 
+    /**Copies this object, so that the copy may be written away from the thread that mutates the original.
+    *Lists shared by several fields of this object remain shared in the copy.
+    *@return the copy
+    */
+    DataSerializer copy() {
+        java.util.IdentityHashMap<PlayList, PlayList> lists = new java.util.IdentityHashMap<>();
+        java.util.function.Function<PlayList, PlayList> copier = ((list) -> lists.computeIfAbsent(list, PlayList::snapshot));
+        LinkedHashMap<String, Trio<File, Duration, Boolean>> mdm = new CountedMap<>();
+        for (Map.Entry<String, Trio<File, Duration, Boolean>> entry: mediaDurationMap.entrySet())
+            mdm.put(entry.getKey(), new Trio<File, Duration, Boolean>(entry.getValue().getKey(), entry.getValue().getValue(), entry.getValue().getExtension()));
+        LinkedHashMap<String, Trio<String, PlayList, String>> cplm = new CountedMap<>();
+        for (Map.Entry<String, Trio<String, PlayList, String>> entry: createdPlayListMap.entrySet())
+            cplm.put(entry.getKey(), new Trio<String, PlayList, String>(entry.getValue().getKey(), copier.apply(entry.getValue().getValue()), entry.getValue().getExtension()));
+        Map<String, Trio<PlayList, FileFilter, FileSortParameter>> plc = new CountedMap<>();
+        for (Map.Entry<String, Trio<PlayList, FileFilter, FileSortParameter>> entry: playListContents.entrySet())
+            plc.put(entry.getKey(), new Trio<PlayList, FileFilter, FileSortParameter>(copier.apply(entry.getValue().getKey()), entry.getValue().getValue(), entry.getValue().getExtension()));
+        DataSerializer copy = new DataSerializer(isMarked, filePosition, copier.apply(playListEntry), copier.apply(recentPlayList), copier.apply(mostRecentPlayList), copier.apply(playedPlayList), copier.apply(mostPlayedPlayList), copier.apply(defaultPlayingPlayList), copier.apply(favouritePlayList), new CountedList<>(durationTime), new CountedList<>(timesPlayed), mdm, cplm, plc, videoFileFolder, audioFileFolder, filesFileFolder, PARAMETER);
+        copy.currentFile = currentFile;
+        copy.journalSequence = journalSequence;
+        return copy;
+    }
+
+    /**Reads this object as written by an ObjectOutputStream,
+    *converting the lists of earlier versions of this app, which were plain LinkedLists, to playlists,
+    *and its other collections to ones which count their modifications.
+    */
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        java.io.ObjectInputStream.GetField fields = in.readFields();
+        java.util.IdentityHashMap<Object, PlayList> lists = new java.util.IdentityHashMap<>();
+        java.util.function.Function<Object, PlayList> converter = ((list) -> (list == null)? null: lists.computeIfAbsent(list, (l) -> (l instanceof PlayList)? (PlayList) l: new PlayList((java.util.Collection<File>) l)));
+        isMarked = fields.get("isMarked", false);
+        filePosition = fields.get("filePosition", 0);
+        playListEntry = converter.apply(fields.get("playListEntry", null));
+        recentPlayList = converter.apply(fields.get("recentPlayList", null));
+        mostRecentPlayList = converter.apply(fields.get("mostRecentPlayList", null));
+        playedPlayList = converter.apply(fields.get("playedPlayList", null));
+        mostPlayedPlayList = converter.apply(fields.get("mostPlayedPlayList", null));
+        defaultPlayingPlayList = converter.apply(fields.get("defaultPlayingPlayList", null));
+        favouritePlayList = converter.apply(fields.get("favouritePlayList", null));
+        ArrayList<Duration> dt = (ArrayList<Duration>) fields.get("durationTime", null);
+        durationTime = (dt == null)? null: new CountedList<>(dt);
+        ArrayList<Integer> tp = (ArrayList<Integer>) fields.get("timesPlayed", null);
+        timesPlayed = (tp == null)? null: new CountedList<>(tp);
+        LinkedHashMap<String, Trio<File, Duration, Boolean>> mdm = (LinkedHashMap<String, Trio<File, Duration, Boolean>>) fields.get("mediaDurationMap", null);
+        mediaDurationMap = (mdm == null)? null: new CountedMap<>(mdm);
+        Map<String, Trio<String, Object, String>> cplm = (Map<String, Trio<String, Object, String>>) fields.get("createdPlayListMap", null);
+        if (cplm != null) {
+            createdPlayListMap = new CountedMap<>();
+            for (Map.Entry<String, Trio<String, Object, String>> entry: cplm.entrySet())
+                createdPlayListMap.put(entry.getKey(), new Trio<String, PlayList, String>(entry.getValue().getKey(), converter.apply(entry.getValue().getValue()), entry.getValue().getExtension()));
+        }
+        Map<String, Trio<Object, FileFilter, FileSortParameter>> plc = (Map<String, Trio<Object, FileFilter, FileSortParameter>>) fields.get("playListContents", null);
+        if (plc != null) {
+            playListContents = new CountedMap<>();
+            for (Map.Entry<String, Trio<Object, FileFilter, FileSortParameter>> entry: plc.entrySet())
+                playListContents.put(entry.getKey(), new Trio<PlayList, FileFilter, FileSortParameter>(converter.apply(entry.getValue().getKey()), entry.getValue().getValue(), entry.getValue().getExtension()));
+        }
+        videoFileFolder = (File) fields.get("videoFileFolder", null);
+        audioFileFolder = (File) fields.get("audioFileFolder", null);
+        filesFileFolder = (File) fields.get("filesFileFolder", null);
+        currentFile = (File) fields.get("currentFile", null);
+        PARAMETER = (FileSortParameter) fields.get("PARAMETER", null);
+        journalSequence = fields.get("journalSequence", 0L);
+    }
+
+    /**Lets go of the sections held by the playlists of this copy,
+    *once written or discarded.
+    */
+    void discard() {
+        for (PlayList list: allPlayLists())
+            list.discard();
+    }
+
+
+    private PlayList[] playLists() {
+        return new PlayList[] {playListEntry, recentPlayList, mostRecentPlayList, playedPlayList, mostPlayedPlayList, defaultPlayingPlayList, favouritePlayList};
+    }
+
+
+    private java.util.List<PlayList> allPlayLists() {
+        java.util.List<PlayList> lists = new ArrayList<>(java.util.Arrays.asList(playLists()));
+        for (Trio<String, PlayList, String> trio: createdPlayListMap.values())
+            lists.add(trio.getValue());
+        for (Trio<PlayList, FileFilter, FileSortParameter> trio: playListContents.values())
+            lists.add(trio.getKey());
+        return lists;
+    }
+
+    /**Resolves the name of a journaled section
+    *to the list it denotes in this snapshot.
+    *@param section
+    *the section name, as recorded by MediaJournal
+    *@return the denoted list, or null if no list goes by the name
+    */
+    java.util.List<?> section(String section) {
+        switch (section) {
+            case "playListEntry":
+                return playListEntry;
+            case "recentPlayList":
+                return recentPlayList;
+            case "mostRecentPlayList":
+                return mostRecentPlayList;
+            case "playedPlayList":
+                return playedPlayList;
+            case "mostPlayedPlayList":
+                return mostPlayedPlayList;
+            case "defaultPlayingPlayList":
+                return defaultPlayingPlayList;
+            case "favouritePlayList":
+                return favouritePlayList;
+            case "timesPlayed":
+                return timesPlayed;
+        }
+        if (section.startsWith("createdPlayList/")) {
+            Trio<String, PlayList, String> trio = createdPlayListMap.get(section.substring(16));
+            return (trio == null)? null: trio.getValue();
+        }
+        if (section.startsWith("playListContents/")) {
+            Trio<PlayList, FileFilter, FileSortParameter> trio = playListContents.get(section.substring(17));
+            return (trio == null)? null: trio.getKey();
+        }
+        return null;
+    }
+
     @Override
     public boolean equals(Object object) {
         if (object == this)
@@ -28,14 +28,17 @@ import gplayer.com.util.*;
 
 import java.io.File;
 
+import java.text.CollationKey;
+import java.text.Collator;
+
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.HashMap;
 import java.util.List;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
@@ -147,6 +150,8 @@ public class FileMedia extends BorderPane {
     private Property<Duration> durationProperty = new Property<>();
     private Property<File> fileProperty = new Property<>();  //Keeps tabs on files being played
     private Property<List<File>> playListProperty = new Property<>();  //Keeps tabs on playlist transitions
+    private final javafx.animation.PauseTransition playListPublisher = new javafx.animation.PauseTransition(Duration.seconds(3));  //Coalesces playlist changes into a single playListProperty update
+    private List<File> publishedPlayList;  //The playlist to publish once playListPublisher elapses
     private FileSortParameter PARAMETER;
     private Alert mediaErrorAlert;  //To alert the user to a media error
     private Alert deleteFileAlert;  //Prompts user to confirm file deletion
@@ -166,9 +171,13 @@ public class FileMedia extends BorderPane {
     private Label playTime, spacer, sliderLabel, timeLabel, volumeLabel, label;  //Declare label references for displaying respective texts
     private final ObservableList<File> playListView = FXCollections.observableArrayList();  //For storing files in the playlist currently being played
     private ListView<File> listView;  //For displaying the files in playListView
+    private static final int VIEW_CHUNK_SIZE = 2000;  //The most files inserted into playListView per pulse
+    private long playListViewFill;  //Counts updates of playListView, so that a chunked fill stops once superseded
     private DataSearch<File> listViewSearch = new DataSearch<>(playListView, ((file) -> file.getName()));  //For searching for a match among listView contents in relation to the key-typed characters, while listView is in focus
     private Media media;  //Declares a Media reference for encapsulating files for playback
     private MediaPlayer mediaPlayer = null;  //Declares a media player reference for playing media objects
+    private MediaPlayer preparedMediaPlayer;  //Created for the last played file from the hot-start record, ahead of the media info
+    private MediaPlayer readiedMediaPlayer;  //The media player whose readiness was last reflected
     private final MediaView mediaView = configureMediaView();  //for displaying media visuals
     private final Group mediaViewHost = new Group(mediaView);
     private MenuBar menuBar;  //A container to hold and display the various menus and menu items
@@ -180,7 +189,7 @@ public class FileMedia extends BorderPane {
     private Menu availableMediaMarks;  //Displays available mediamarks for playing file as menu items
     private Menu playListOptions;
     //Declare some RadioMenuItem references
-    private RadioMenuItem sortDefault, sortAscending, sortDescending, sortShuffle;  //For determining play list ordering
+    private RadioMenuItem sortDefault, sortAscending, sortDescending, sortShuffle, sortSize, sortLastModified, sortPlayCount, sortLastPlayed, sortDuration;  //For determining play list ordering
     private RadioMenuItem containsSearchString, beginsSearchString, endsSearchString;  //For determining the parameter with which a search is to be conducted
     private RadioMenuItem defaultAudioBalance, leftAudioBalance, rightAudioBalance, audioMute;  //For determining sound outlets/channels
     private Slider timeSlider, volumeSlider;  //Sliders for controlling media seek time, and volume respectively
@@ -211,32 +220,36 @@ public class FileMedia extends BorderPane {
     private MediaLibrary mediaLibrary;
     private FileManager fileManager;
     private FileChooser fileChooser;  //Facilitates selection of file/files by user
-    private LinkedList<File> filteredPlayList = new LinkedList<>(), unfilteredPlayList = new LinkedList<>();
-    private LinkedList<File> playingPlayList = new LinkedList<>();  //References focused play list
-    private LinkedList<File> recentPlayList;  //Uniquely holds an array of recently played files
-    private LinkedList<File> playedPlayList;  //References previously focused play list
-    private LinkedList<File> defaultPlayedPlayList = new LinkedList<>();  //References the route source of previously focused play list
-    private LinkedList<File> playListEntry;  //Stores every file opened by the user
-    private LinkedList<File> mostPlayedPlayList;  //Stores unique files in order of highest played to least played
-    private LinkedList<File> defaultPlayingPlayList;  //References the route source of a playing play list
-    private LinkedList<File> mostRecentPlayList = new LinkedList<File>();  //References either of the route source of recentPlayList and mostPlayedPlayList
-    private LinkedList<File> favouritePlayList;  //Uniquely stores files favourited by user
-    private LinkedList<File> nextPlayListSearch = new LinkedList<>();  //References search-result playlist
-    private LinkedList<File> previousPlayListSearch = new LinkedList<>();  //References search-result playlist
-    private LinkedList<File> durationMatch = new LinkedList<>();  //Stores mediamark-search result
-    private LinkedList<File> lastDurationMatch = new LinkedList<>();  //Stores previous mark-search result
-    private LinkedHashMap<String, Duo<LinkedList<File>, FileFilter>> searchArrayMap = new LinkedHashMap<>();
+    private PlayList filteredPlayList = new PlayList(), unfilteredPlayList = new PlayList();
+    private PlayList playingPlayList = new PlayList();  //References focused play list
+    private ShuffleOrder shuffleOrder;  //The order in which playingPlayList is played while shuffle is selected
+    private PlayList shuffledPlayList;  //The list shuffleOrder was drawn for
+    private long shuffledModificationCount;  //The modification count of shuffledPlayList when shuffleOrder was drawn
+    private PlayList recentPlayList;  //Uniquely holds an array of recently played files
+    private PlayList playedPlayList;  //References previously focused play list
+    private PlayList defaultPlayedPlayList = new PlayList();  //References the route source of previously focused play list
+    private PlayList playListEntry;  //Stores every file opened by the user
+    private PlayList mostPlayedPlayList;  //Stores unique files in order of highest played to least played
+    private PlayList defaultPlayingPlayList;  //References the route source of a playing play list
+    private PlayList mostRecentPlayList = new PlayList();  //References either of the route source of recentPlayList and mostPlayedPlayList
+    private PlayList favouritePlayList;  //Uniquely stores files favourited by user
+    private PlayList nextPlayListSearch = new PlayList();  //References search-result playlist
+    private PlayList previousPlayListSearch = new PlayList();  //References search-result playlist
+    private PlayList durationMatch = new PlayList();  //Stores mediamark-search result
+    private PlayList lastDurationMatch = new PlayList();  //Stores previous mark-search result
+    private LinkedHashMap<String, Duo<PlayList, FileFilter>> searchArrayMap = new LinkedHashMap<>();
     private ArrayList<String> searchArrayString = new ArrayList<>();  //Stores search strings that produce at least a match
-    private ArrayList<Integer> timesPlayed;  //Stores the number of times a file has been played
-    private ArrayList<Duration> defaultDurationTime = new ArrayList<>(), durationTime = new ArrayList<>(), lastDefaultDurationTime = new ArrayList<>(), lastDurationTime = new ArrayList<>();  //Store marked positions for mediamark-searched files
+    private CountedList<Integer> timesPlayed;  //Stores the number of times a file has been played
+    private PlayCountRanking playCountRanking;  //Ranks the files of mostPlayedPlayList, mirroring the ranking onto it and timesPlayed
+    private CountedList<Duration> defaultDurationTime = new CountedList<>(), durationTime = new CountedList<>(), lastDefaultDurationTime = new CountedList<>(), lastDurationTime = new CountedList<>();  //Store marked positions for mediamark-searched files
     private final ArrayList<String> repeatOptions = new ArrayList<>(Arrays.asList(resource.getStringArray("repeat.text.array")));  //Available repeat options
     private TreeMap<Duration, String> durationSet = new TreeMap<>();  //Stores the available marked positions for the current playing media
-    private LinkedHashMap<String, Trio<File, Duration, Boolean>> mediaDurationMap;  //A map that stores file paths with their associated mediamarks
-    private final TreeMap<String, LinkedList<File>> miscellaneousPlayListMap = new TreeMap<>();
+    private CountedMap<String, Trio<File, Duration, Boolean>> mediaDurationMap;  //A map that stores file paths with their associated mediamarks
+    private final TreeMap<String, PlayList> miscellaneousPlayListMap = new TreeMap<>();
     private Set<Map.Entry<String, Trio<File, Duration, Boolean>>> mediaDurationSet;  //A medium through which the keys and values of  mediaDurationMap can be retrieved
-    private LinkedHashMap<String, Trio<String, LinkedList<File>, String>> createdPlayListMap;  //Holds playlists created by user
-    private Map<String, LinkedList<File>> allPlayLists = new HashMap<>();
-    private Map<String, Trio<LinkedList<File>, FileFilter, FileSortParameter>> playListContents;
+    private CountedMap<String, Trio<String, PlayList, String>> createdPlayListMap;  //Holds playlists created by user
+    private Map<String, PlayList> allPlayLists = new HashMap<>();
+    private CountedMap<String, Trio<PlayList, FileFilter, FileSortParameter>> playListContents;
     private Map<Menu, Duo<Supplier<List<File>>, java.util.function.BiConsumer<List<File>, Runnable>>> playListOperationsMap = new LinkedHashMap<>();
     private final List<File> errorFiles = new ArrayList<>(), unplayableFiles = new ArrayList<>();
     private int unfilteredPlayListPosition;
@@ -245,7 +258,7 @@ public class FileMedia extends BorderPane {
     private int intRepeat;  //Marks the number of times the repeat button is pressed
     private static int filePosition;
     private static char separator = File.separatorChar;
-    private double speedRate = GPlayerSettings.playBackPrefs().getDouble("speedRate", 1.0);
+    private double speedRate = GPlayerSettings.settings().speedRate();
     private double volumeLevel = preferences.getUserPreferences().getDouble("volumeLevel", 70.0);  //The level to which the volume slider is set at start up
     private String repeatText = preferences.getUserPreferences().get("repeatText", repeatOptions.get(0));
     private double audioBalanceLevel = 0.0;
@@ -257,6 +270,10 @@ public class FileMedia extends BorderPane {
     public static final String[] VIDEO_EXTENSIONS = {"*.mp4", "*.flv"};  //Supported video files
     public static final String[] ALL_EXTENSIONS = Utility.concatArrays(AUDIO_EXTENSIONS, VIDEO_EXTENSIONS);
     public static final String SERIALIZATION_PATH = GPlayer.getResourcePath("file");
+    private final MediaJournal mediaJournal = new MediaJournal(String.join("/", GPlayer.RESOURCE_PATH, "journal"));  //Logs media info changes made since the last serialization
+    private final LibraryStore libraryStore = new LibraryStore(String.join("/", GPlayer.RESOURCE_PATH, "library"));  //Per-file play counts, resume positions, mediamarks and playlist memberships, indexed alongside the media info
+    private final MediaInfoWriter mediaInfoWriter = new MediaInfoWriter(this::captureMediaInfo, this::writeMediaInfo, preferences.getUserPreferences().getLong("mediaInfoSyncWindow", 1000));  //Coalesces media info serialization requests
+    private volatile long writtenHeadModificationCount;  //Modification count of the non-playlist info last serialized
     public static final String DEFAULT_PLAYLIST_EXTENSION = UUID.randomUUID().toString(), CREATED_PLAYLIST_EXTENSION = UUID.randomUUID().toString(), SEARCH_PLAYLIST_EXTENSION = UUID.randomUUID().toString(), MISCELLANEOUS_PLAYLIST_EXTENSION = UUID.randomUUID().toString();
     private final static Map<javafx.stage.Window, javafx.stage.Window> displayedPopups = new HashMap<javafx.stage.Window, javafx.stage.Window>() {
         @Override
@@ -313,7 +330,7 @@ public class FileMedia extends BorderPane {
         this.stage = stage;
         stage.setOnHidden((we) -> GPlayer.fireHideItem(false, false));
         stage.setOnShown((we) -> {
-            Platform.setImplicitExit(!GPlayerSettings.programPrefs().getBoolean("implicitExit", true));
+            Platform.setImplicitExit(!GPlayerSettings.settings().implicitExit());
             GPlayer.fireHideItem(true, false);
             //Let's check for updates
             if (!checkedUpdate && GPlayerSettings.generalPrefs().getBoolean("autoUpdateCheck", true))
@@ -328,7 +345,7 @@ public class FileMedia extends BorderPane {
         stage.focusedProperty().addListener((listener) -> {
             if (currentFile != null && !isAudioFile(currentFile)) {
                 if (!isDialogShowing && !stage.isFocused()) {
-                    if (GPlayerSettings.viewPrefs().getBoolean("windowViewOnly", false) && !isAudio && mediaPlayer != null && mediaPlayer.getStatus() == Status.PLAYING) {
+                    if (GPlayerSettings.settings().windowViewOnly() && !isAudio && mediaPlayer != null && mediaPlayer.getStatus() == Status.PLAYING) {
                         mediaPlayer.pause();
                         GPlayer.notify(videoPlaybackNotification());
                         wasPaused = true;
@@ -367,7 +384,9 @@ public class FileMedia extends BorderPane {
 
         heightProperty().addListener((listener) -> setMediaViewSize("height"));
 
-        playListView.addListener((javafx.collections.ListChangeListener.Change<? extends File> c) -> waitThenRun(Duration.seconds(3), (() -> playListProperty.setValue(new ArrayList<File>(playListView)))));
+        playListPublisher.setOnFinished((event) -> playListProperty.setValue(new ArrayList<File>(publishedPlayList)));
+
+        playListView.addListener((javafx.collections.ListChangeListener.Change<? extends File> c) -> publishPlayList(playListView));
 
         fileProperty.valueProperty().addListener((value, oldValue, newValue) -> {
             markMediaStopPosition = markMediaPosition(newValue);
@@ -394,23 +413,24 @@ public class FileMedia extends BorderPane {
         logger.info("About to deserialize media info");
         try {
             DataSerializer deserialization = GPlayer.deserializeMediaInfo(String.join("/", GPlayer.RESOURCE_PATH, preferences.getUserPreferences().get("serializedFile", "file")));
+            logger.info("Replayed " + replayMediaJournal(deserialization) + " media journal records");
             audioFileFolder = deserialization.audioFileFolder;
-            createdPlayListMap = requireNonNull(deserialization.createdPlayListMap);
+            createdPlayListMap = CountedMap.of(deserialization.createdPlayListMap);
             defaultPlayingPlayList = requireNonNull(deserialization.defaultPlayingPlayList);
-            durationTime = requireNonNull(deserialization.durationTime);
+            durationTime = CountedList.of(deserialization.durationTime);
             favouritePlayList = requireNonNull(deserialization.favouritePlayList);
             filePosition = deserialization.filePosition;
             filesFileFolder = deserialization.filesFileFolder;
             isMarked = deserialization.isMarked;
-            mediaDurationMap = requireNonNull(deserialization.mediaDurationMap);
+            mediaDurationMap = CountedMap.of(deserialization.mediaDurationMap);
             mostPlayedPlayList = requireNonNull(deserialization.mostPlayedPlayList);
             mostRecentPlayList = requireNonNull(deserialization.mostRecentPlayList);
             PARAMETER = requireNonNull(deserialization.PARAMETER);
             playedPlayList = requireNonNull(deserialization.playedPlayList);
-            playListContents = requireNonNull(deserialization.playListContents);
+            playListContents = CountedMap.of(deserialization.playListContents);
             playListEntry = requireNonNull(deserialization.playListEntry);
             recentPlayList = requireNonNull(deserialization.recentPlayList);
-            timesPlayed = requireNonNull(deserialization.timesPlayed);
+            timesPlayed = CountedList.of(deserialization.timesPlayed);
             videoFileFolder = deserialization.videoFileFolder;
             preferences.getUserPreferences().putBoolean("deserializationSuccess", true);
             logger.info("Successfully deserialized media info");
@@ -420,26 +440,29 @@ public class FileMedia extends BorderPane {
         catch(Exception ex) {
             //Resort to the default
             audioFileFolder = filesFileFolder = videoFileFolder = null;
-            createdPlayListMap = new LinkedHashMap<>();
-            defaultPlayingPlayList = new LinkedList<>();
-            favouritePlayList = new LinkedList<>();
-            mediaDurationMap = new LinkedHashMap<>();
-            mostPlayedPlayList = new LinkedList<>();
+            createdPlayListMap = new CountedMap<>();
+            defaultPlayingPlayList = new PlayList();
+            favouritePlayList = new PlayList();
+            mediaDurationMap = new CountedMap<>();
+            mostPlayedPlayList = new PlayList();
             PARAMETER = FileSortParameter.DEFAULT;
-            playedPlayList = new LinkedList<>();
-            playListContents = new HashMap<>();
-            playListEntry = new LinkedList<File>();
-            recentPlayList = new LinkedList<>();
-            timesPlayed = new ArrayList<>();
+            playedPlayList = new PlayList();
+            playListContents = new CountedMap<>();
+            playListEntry = new PlayList();
+            recentPlayList = new PlayList();
+            timesPlayed = new CountedList<>();
+            //Journaled changes are meaningless without the snapshot they were made on
+            mediaJournal.replay(0, null);
             preferences.getUserPreferences().putBoolean("deserializationSuccess", false);
             logger.log(Level.INFO, "Media info deserialization was unsuccessful.", ex);
         }  //End of the default block
+        playCountRanking = new PlayCountRanking(mostPlayedPlayList, timesPlayed, mediaJournal::requireSnapshot);
         FileSortParameter.setSortParameter(PARAMETER);
         String lpl = DEFAULT_PLAYLIST_NAMES.get(4);
         //Retrieve the name of the playlist to commence play on
         String string = GPlayerSettings.playListPrefs().get("playList", lpl);
         playListID = (string.equals(lpl))? string: null;
-        LinkedList<File> ll = getPlayList(string + DEFAULT_PLAYLIST_EXTENSION, true, false);  //Get the playlist that corresponds with the name in string
+        PlayList ll = getPlayList(string + DEFAULT_PLAYLIST_EXTENSION, true, false);  //Get the playlist that corresponds with the name in string
         if (ll == null && (ll = getPlayList(string + CREATED_PLAYLIST_EXTENSION, true, false)) == null) {
             ll = playedPlayList;
             playListID = lpl;
@@ -451,8 +474,8 @@ public class FileMedia extends BorderPane {
                     //Ok to assign incoming playlist to outgoing one
                     playingPlayList = playedPlayList;
                     //Then, assign outgoing playlist and affiliates to empty lists
-                    playedPlayList = new LinkedList<>();
-                    defaultPlayedPlayList = new LinkedList<>();
+                    playedPlayList = new PlayList();
+                    defaultPlayedPlayList = new PlayList();
                     //Revert the positions of filePosition and playedPlayListFilePosition
                     filePosition = playedPlayListFilePosition;
                     playedPlayListFilePosition = 0;
@@ -462,8 +485,8 @@ public class FileMedia extends BorderPane {
             }
             else {  //If playedPlayList is the same object with playingPlayList
                 //So, it's ok to assign previously played playlist and affiliates to empty lists
-                playedPlayList = new LinkedList<>();
-                defaultPlayedPlayList = new LinkedList<>();
+                playedPlayList = new PlayList();
+                defaultPlayedPlayList = new PlayList();
             }
         }
         if (isMarked) {
@@ -480,12 +503,68 @@ public class FileMedia extends BorderPane {
             //This is necessary because the contents of defaultDurationTime were added to durationTime at the point of saving/serialization
             int midPoint = durationTime.size()/2;
             //The last half is assigned to defaultDurationTime
-            defaultDurationTime = new ArrayList<>(durationTime.subList(midPoint, durationTime.size()));
+            defaultDurationTime = new CountedList<>(durationTime.subList(midPoint, durationTime.size()));
             //and first half to durationTime
-            durationTime = new ArrayList<>(durationTime.subList(0, midPoint));
+            durationTime = new CountedList<>(durationTime.subList(0, midPoint));
             miscellaneousPlayListMap.put("Media-marked playlist", durationMatch);
         }
         mediaDurationSet = mediaDurationMap.entrySet();
+        if (!libraryStore.open() && libraryStore.isOpen()) {
+            //Newly created store, populated from the media info of earlier versions
+            libraryStore.importFrom(serializableMediaInfo(), FileMedia::isAudioFile);
+            logger.info("Imported " + libraryStore.size() + " files into the library store");
+        }
+    }
+
+
+    /**Applies the changes logged since a snapshot was serialized
+    *onto the deserialized snapshot.
+    *@param deserialization
+    *the deserialized snapshot
+    *@return the number of changes applied
+    */
+    private int replayMediaJournal(DataSerializer deserialization) {
+        return mediaJournal.replay(deserialization.journalSequence, new MediaJournal.Replayer() {
+            private final PlayCountRanking ranking = new PlayCountRanking(deserialization.mostPlayedPlayList, deserialization.timesPlayed, mediaJournal::requireSnapshot);
+
+            //Plays are applied to recentPlayList and mostPlayedPlayList once either is read,
+            //so that replaying them doesn't read either at startup
+            @Override
+            public void filePlayed(String path, int filePosition) {
+                File file = new File(path);
+                LazyPlayList.whenLoaded(deserialization.recentPlayList, (list) -> moveToFront(list, file));
+                LazyPlayList.whenLoaded(deserialization.mostPlayedPlayList, (list) -> ranking.increment(file));
+                deserialization.filePosition = filePosition;
+            }
+
+            @Override
+            public void entryRemoved(String section, int index) {
+                List<?> list = deserialization.section(section);
+                if (list == null)
+                    return;
+                //timesPlayed is parallel to mostPlayedPlayList, so is changed alongside it
+                List<?> changedList = (list == deserialization.timesPlayed)? deserialization.mostPlayedPlayList: list;
+                LazyPlayList.whenLoaded(changedList, (l) -> {
+                    if (index >= 0 && index < list.size())
+                        list.remove(index);
+                });
+            }
+
+            @Override
+            public void filePosition(int filePosition) {
+                deserialization.filePosition = filePosition;
+            }
+
+            @Override
+            public void markerPut(String key, String path, double millis, boolean flag) {
+                deserialization.mediaDurationMap.put(key, new Trio<File, Duration, Boolean>(FileRegistry.canonical(new File(path)), Duration.millis(millis), flag));
+            }
+
+            @Override
+            public void markerRemoved(String key) {
+                deserialization.mediaDurationMap.remove(key);
+            }
+        });
     }
 
 
@@ -535,15 +614,88 @@ public class FileMedia extends BorderPane {
             playing = hasValidArgument = playPlayListEntry(true, currentFile, callArgument);
         }
         if (!playing) {
-            if (!ready)
-                readyPlayResources();
-            if (!playingPlayList.isEmpty()) {
-                logger.info("Initializing playback");
-                isPlaying = false;
-                filePosition = (filePosition < 0 || filePosition >= playingPlayList.size())? 0: filePosition;
-                transitionPlayList(playedPlayListFilePosition, filePosition, playedPlayList, defaultPlayedPlayList, playingPlayList, defaultPlayingPlayList, FileSortParameter.getSortParameter(), PARAMETER, false);
+            if (!ready && latch2.getCount() > 0 && showHotStart()) {
+                //Reconcile once the media info is deserialized, without holding up the first frame
+                Thread thread = new Thread(() -> {
+                    awaitLatchCountDown(latch2);
+                    Platform.runLater(() -> initializePlayback(false));
+                });
+                thread.setDaemon(true);
+                thread.start();
+                return;
             }
+            initializePlayback(ready);
+        }
+    }
+
+
+    private void initializePlayback(boolean ready) {
+        if (!ready)
+            readyPlayResources();
+        if (!playingPlayList.isEmpty()) {
+            logger.info("Initializing playback");
+            isPlaying = false;
+            filePosition = (filePosition < 0 || filePosition >= playingPlayList.size())? 0: filePosition;
+            transitionPlayList(playedPlayListFilePosition, filePosition, playedPlayList, defaultPlayedPlayList, playingPlayList, defaultPlayingPlayList, FileSortParameter.getSortParameter(), PARAMETER, false);
+        }
+        else {
+            //The hot-start record, if shown, is stale
+            playListViewFill++;
+            playListView.clear();
+            takePreparedMediaPlayer(null);
+        }
+    }
+
+
+    /**Shows the playlist recorded at the last exit, with the last played file selected,
+    *and prepares a media player for the file, at the position it stopped at,
+    *while the media info is yet to be deserialized.
+    *@return true if a hot-start record was shown,
+    *and false otherwise
+    */
+    private boolean showHotStart() {
+        HotStart hotStart = HotStart.read(new File(GPlayer.RESOURCE_PATH, "hotstart"));
+        if (hotStart == null || hotStart.files.isEmpty() || !hotStart.currentFile.exists())
+            return false;
+        logger.info("Showing hot-start playlist");
+        playListViewFill++;
+        playListView.setAll(hotStart.files);
+        //The recorded files begin at firstIndex of the playlist
+        int position = hotStart.filePosition - hotStart.firstIndex;
+        if (listView != null && position >= 0 && position < hotStart.files.size()) {
+            listView.getSelectionModel().clearAndSelect(position);
+            listView.scrollTo(position);
+        }
+        stage.setTitle(new FileInfo(hotStart.currentFile).getName());
+        try {
+            MediaPlayer prepared = new MediaPlayer(new Media(hotStart.currentFile.toURI().toString()));
+            //Move to where playback stopped, in case the file resumes there,
+            //until the player is taken, when its handlers are replaced
+            Duration stopPosition = Duration.millis(hotStart.mediaStopPosition);
+            prepared.setOnReady(() -> prepared.seek(stopPosition));
+            preparedMediaPlayer = prepared;
+        }
+        catch (Exception ex) {
+            logger.log(Level.INFO, "Unable to prepare hot-start media player", ex);
         }
+        return true;
+    }
+
+
+    /**Takes the media player prepared from the hot-start record,
+    *disposing of it if it wasn't prepared for the passed file.
+    *@param file
+    *the file about to be played
+    *@return the prepared media player, or null if none was prepared for the file
+    */
+    private MediaPlayer takePreparedMediaPlayer(File file) {
+        MediaPlayer prepared = preparedMediaPlayer;
+        preparedMediaPlayer = null;
+        if (prepared != null && (file == null || !prepared.getMedia().getSource().equals(file.toURI().toString()))) {
+            prepared.dispose();
+            prepared = null;
+        }
+        return prepared;
     }
 
 
@@ -554,9 +706,9 @@ public class FileMedia extends BorderPane {
     *@return a list of files retrieved
     *or an empty list, if no files were retrieved
     */
-    private LinkedList<File> retrieveFiles(String... args) {
+    private PlayList retrieveFiles(String... args) {
         File file = null;
-        final LinkedList<File> myPlayList = new LinkedList<>();
+        final PlayList myPlayList = new PlayList();
         //Cycle through the number of arguments
         for (String path: args) {
             file = new File(path);  //Convert the retrieved string to a file
@@ -581,14 +733,17 @@ public class FileMedia extends BorderPane {
     private void add(List<File> list, List<File> ppl, List<File> dppl, int addIndex) {
         if (list == null || list.isEmpty())
             return;
-        List<Integer> indices = fileIndices(ppl, list);
+        BitSet indices = fileIndices(ppl, list);
         deleteFiles(ppl, dppl, filePosition, indices);
         //How many indices are less than the insertion point?
-        int count = (int) indices.stream().filter((index) -> index < addIndex).count();
+        int count = (addIndex > 0)? indices.get(0, addIndex).cardinality(): 0;
         int insertionIndex = addIndex - count;
         ppl.addAll((insertionIndex > ppl.size())? ppl.size(): insertionIndex, list);
         if (ppl != dppl)
             dppl.addAll((insertionIndex > dppl.size())? dppl.size(): insertionIndex, list);
+        recordMembership(list, dppl, true);
+        if (ppl != dppl)
+            recordMembership(list, ppl, true);
         Platform.runLater(() -> {
             if (ppl == playingPlayList) {
                 setSortParameter(FileSortParameter.DEFAULT, false, true);
@@ -599,7 +754,7 @@ public class FileMedia extends BorderPane {
                     FileSortParameter.setPriorSortParameter(FileSortParameter.DEFAULT);
                 updateMediaInfo(false);
                 disablePlayLists(false);
-                playListProperty.setValue(new ArrayList<File>(ppl));
+                publishPlayList(ppl);
             }
         });
     }
@@ -618,7 +773,7 @@ public class FileMedia extends BorderPane {
         Platform.runLater(() -> {
             if (!playNextIf(deleted, fp)) {
                 disablePlayLists(false);
-                playListProperty.setValue(new ArrayList<File>(ppl));
+                publishPlayList(ppl);
             }
         });
     }
@@ -635,7 +790,7 @@ public class FileMedia extends BorderPane {
 
 
     private boolean playPlayListEntry(boolean play, File currentFile, String... args) {
-        LinkedList<File> ll = retrieveFiles(args);
+        PlayList ll = retrieveFiles(args);
         if (isInitialized)
             Platform.runLater(() -> GPlayer.focusStage(stage));
         if (ll.isEmpty())
@@ -715,12 +870,13 @@ public class FileMedia extends BorderPane {
                 File currentFile = new File(path);
                 double d = preferences.getUserPreferences().getDouble("mediaStopPosition", 0.0);
                 if (preferences.getUserPreferences().getBoolean("markMediaStopPosition", false)) {
-                    long time = Utility.convertTimeToMillis(GPlayerSettings.generalPrefs().get("mediaMarkTime", Utility.formatTime(1, 1)));
+                    long time = Utility.convertTimeToMillis(GPlayerSettings.settings().mediaMarkTime());
                     String key = " " + path;
                     if (d - time >= 0)
-                        mediaDurationMap.put(key, new Trio<File, Duration, Boolean>(currentFile, Duration.millis(d), !markMediaPosition(currentFile)));
+                        mediaDurationMap.put(key, new Trio<File, Duration, Boolean>(FileRegistry.canonical(currentFile), Duration.millis(d), !markMediaPosition(currentFile)));
                     else
                         mediaDurationMap.remove(key);
+                    libraryStore.update(currentFile, (entry) -> entry.resumePosition = (d - time >= 0)? d: Double.NaN);
                 }
             }
         }
@@ -755,30 +911,39 @@ public class FileMedia extends BorderPane {
         hb1.setAlignment(Pos.CENTER);
         previous = createButton("previous");
         previous.setOnAction((ae) -> {  //Action definition
-            if (GPlayerSettings.generalPrefs().getBoolean("wrapPrevious", true))  //If true
+            previous_next = previous;
+            if (sortShuffle.isSelected()) {
+                //Step back through the shuffled order
+                filePosition = previousShuffledPosition();
+                playMedia(filePosition, true);
+                return;
+            }
+            if (GPlayerSettings.settings().wrapPrevious())  //If true
                 //And current position is at the start (0)
                 //we need to wrap around by playing from the rear of the playlist
                 filePosition = (filePosition == 0)? playingPlayList.size(): filePosition;
             //Now, decrease by 1 to play previous item
             filePosition = filePosition > 0? --filePosition: 0;
-            previous_next = previous;
             playMedia(filePosition, true);  //Sends the item for play
         });  //Case close for the previous button
 
         next = createButton("next");  //Plays the next media file in a playlist
         previous_next = next;
         next.setOnAction((ae) -> {  //Action definition
-            if (!GPlayerSettings.generalPrefs().getBoolean("wrapNext", true))  //If false
+            previous_next = next;
+            if (sortShuffle.isSelected()) {
+                //Draw the next file of the shuffled order
+                filePosition = nextShuffledPosition();
+                playMedia(filePosition, true);
+                return;
+            }
+            if (!GPlayerSettings.settings().wrapNext())  //If false
                 //And current position is at the end (playlist size -1)
                 //we need not wrap around by repeatedly playing the same item
                 filePosition = (filePosition == playingPlayList.size()-1)? --filePosition: filePosition;
             //Now, increase by 1 to play next item
             filePosition = filePosition == playingPlayList.size()-1? 0: ++filePosition;
-            previous_next = next;
-            if (filePosition == 0 && sortShuffle.isSelected())
-                sortPlayList(playingPlayList, 0);
-            else
-                playMedia(filePosition, true);  //Sends the item for play
+            playMedia(filePosition, true);  //Sends the item for play
         });  //Block ends
 
         play_pause = createButton("play");  //Plays/pauses focused media file in a playlist
@@ -832,7 +997,7 @@ public class FileMedia extends BorderPane {
         javafx.scene.control.Separator separator = new javafx.scene.control.Separator();
         separator.setPrefWidth(180);
         hb1.getChildren().addAll(separator, libraryToggle);
-        if (GPlayerSettings.viewPrefs().getBoolean("displayLibrary", false))  //If true
+        if (GPlayerSettings.settings().displayLibrary())  //If true
             //Show library on start-up
             Platform.runLater(() -> libraryToggle.setSelected(true));
 
@@ -907,15 +1072,22 @@ public class FileMedia extends BorderPane {
         String key = " " + file.getPath();
         if (key != null || recallMediaStopPosition.isSelected()) {
             //We need to save this position for future recovery
-            long time = Utility.convertTimeToMillis(GPlayerSettings.generalPrefs().get("mediaMarkTime", Utility.formatTime(1, 1)));  //Time that must have been expended before this info can be saved
-            if (!recallMediaStopPosition.isSelected() || endOfFile || position.lessThan(Duration.millis(time)))
+            long time = Utility.convertTimeToMillis(GPlayerSettings.settings().mediaMarkTime());  //Time that must have been expended before this info can be saved
+            if (!recallMediaStopPosition.isSelected() || endOfFile || position.lessThan(Duration.millis(time))) {
                 //Remove the associated info, if any
-                mediaDurationMap.remove(key);
-            else
+                if (mediaDurationMap.remove(key) != null)
+                    mediaJournal.markerRemoved(key);
+                libraryStore.update(file, (entry) -> entry.resumePosition = Double.NaN);
+            }
+            else {
                 //Save the media info
-                mediaDurationMap.put(key, new Trio<File, Duration, Boolean>(file, position, !markMediaPosition(file)));
+                boolean flag = !markMediaPosition(file);
+                mediaDurationMap.put(key, new Trio<File, Duration, Boolean>(FileRegistry.canonical(file), position, flag));
+                mediaJournal.markerPut(key, file.getPath(), position.toMillis(), flag);
+                libraryStore.update(file, (entry) -> entry.resumePosition = position.toMillis());
+            }
             //Update media info
-            updateMediaInfo(false);
+            commitMediaInfo();
         }
         if (!endOfFile && multipleSelection)
             multipleSelection = false;
@@ -1001,7 +1173,7 @@ public class FileMedia extends BorderPane {
                 @Override
                 public void updateItem(File item, boolean empty) {
                     super.updateItem(item, empty);
-                    if (empty)
+                    if (empty || item == null)
                         setText(null);
                     else
                         setText(getFileInfo(item));
@@ -1380,7 +1552,7 @@ public class FileMedia extends BorderPane {
     *@return true if the transition was successful
     *and false otherwise
     */
-    private boolean transitionPlayList(int fp, int nfp, LinkedList<File> ppl, LinkedList<File> dppl, LinkedList<File> nppl, LinkedList<File> ndppl, FileSortParameter P, FileSortParameter NP, boolean sort) {
+    private boolean transitionPlayList(int fp, int nfp, PlayList ppl, PlayList dppl, PlayList nppl, PlayList ndppl, FileSortParameter P, FileSortParameter NP, boolean sort) {
         if (nppl.isEmpty()) {
             playListID = null;
             disablePlayLists(false);
@@ -1402,13 +1574,13 @@ public class FileMedia extends BorderPane {
         String playListID = playListIdentity(defaultPlayingPlayList);
         logger.info("Incoming playlist information:\n" + String.join(": ", "Playlist name", playListID) + String.join(": ", ", filePosition index", "" + filePosition) + String.join(": ", ", sort parameter", NP.toString()));
         if (menuBar != null) {
-            unfilteredPlayList = new LinkedList<>();
+            unfilteredPlayList = new PlayList();
             sortUnfilteredPlayList = false;
             if (!filteredPlayList.isEmpty() && !playingPlayList.equals(filteredPlayList)) {
                 File file = playingPlayList.get(filePosition);
                 unfilteredPlayList = playingPlayList;
                 playingPlayList = filteredPlayList;
-                filteredPlayList = new LinkedList<>();
+                filteredPlayList = new PlayList();
                 if (filePosition != 0) {
                     int fileIndex = playingPlayList.indexOf(file);
                     filePosition = (fileIndex < 0)? 0: fileIndex;
@@ -1443,10 +1615,10 @@ public class FileMedia extends BorderPane {
     *@param name
     *name of the playlist
     */
-    private void transitionMostRecentPlayList(LinkedList<File> ll, String name) {
-        Task<LinkedList<File>> task = new Task<LinkedList<File>>() {
+    private void transitionMostRecentPlayList(PlayList ll, String name) {
+        Task<PlayList> task = new Task<PlayList>() {
             @Override
-            protected LinkedList<File> call() {
+            protected PlayList call() {
                 return getMostRecentPlayList(ll, name);
             }
         };
@@ -1455,7 +1627,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    public void transitionAppPlayList(LinkedList<File> playList, String name, boolean allowEmptyPlayList) {
+    public void transitionAppPlayList(PlayList playList, String name, boolean allowEmptyPlayList) {
         filteredPlayList.addAll(playList);
         if (name != null) {
             if (playList.isEmpty() && !allowEmptyPlayList) {
@@ -1476,7 +1648,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    public void transitionUserPlayList(LinkedList<File> playList, String name, int index, boolean allowEmptyPlayList) {
+    public void transitionUserPlayList(PlayList playList, String name, int index, boolean allowEmptyPlayList) {
         if (name == null || availableMaps()[index].isEmpty() || (!allowEmptyPlayList && playList.isEmpty())) {
             notify(resource.getString("playList.empty.message"));
             return;
@@ -1504,7 +1676,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    public void transitionSystemPlayList(LinkedList<File> playList, File directory) {
+    public void transitionSystemPlayList(PlayList playList, File directory) {
         if (!playList.isEmpty()) {
             filteredPlayList.addAll(playList);
             int size = playList.size();
@@ -1617,7 +1789,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    public <K> LinkedList<File> getMapPlayList(K key, int index) {
+    public <K> PlayList getMapPlayList(K key, int index) {
         try {
             switch (index) {
                 case 0:
@@ -1636,7 +1808,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    public <K, V> LinkedList<File> getMapPlayList(K key, Map<K, V> map) {
+    public <K, V> PlayList getMapPlayList(K key, Map<K, V> map) {
         return getMapPlayList(key, Arrays.asList(availableMaps()).indexOf(map));
     }
 
@@ -1647,7 +1819,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    private void adjustPlayList(LinkedList<File> ll, boolean adjust) {
+    private void adjustPlayList(PlayList ll, boolean adjust) {
         try {
             requireNonNull(ll);
             if (adjust) {
@@ -1665,7 +1837,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    private LinkedList<File> getDefaultPlayList(LinkedList<File> defaultPlayingPlayList) {
+    private PlayList getDefaultPlayList(PlayList defaultPlayingPlayList) {
         if (defaultPlayingPlayList == recentPlayList || defaultPlayingPlayList == mostPlayedPlayList)
             return mostRecentPlayList;
         return defaultPlayingPlayList;
@@ -1676,9 +1848,9 @@ public class FileMedia extends BorderPane {
     *@param name
     *identity of the required playlist
     */
-    public final LinkedList<File> getPlayList(String name) {
-        LinkedList<File> ll = getPlayList(name, false, true);
-        return (ll == null)? ll: new LinkedList<File>(ll);
+    public final PlayList getPlayList(String name) {
+        PlayList ll = getPlayList(name, false, true);
+        return (ll == null)? ll: new PlayList(ll);
     }
 
 
@@ -1689,10 +1861,10 @@ public class FileMedia extends BorderPane {
     *asserts if the value of filePosition is to be modified
     *@param returnDefaultValues
     *asserts the return of a copy of the recentPlayList/mostPlayedPlayList, if false, or the mentioned playlists as is, if true
-    *@return a LinkedList object
+    *@return a PlayList object
     */
-    private LinkedList<File> getPlayList(String name, boolean adjustValues, boolean returnDefault) {
-        LinkedList<File> ll = null;
+    private PlayList getPlayList(String name, boolean adjustValues, boolean returnDefault) {
+        PlayList ll = null;
         boolean setValue = true;
         if (name.endsWith(DEFAULT_PLAYLIST_EXTENSION)) {
             String[] playListNames = resource.getStringArray("DEFAULT_PLAYLIST_NAMES.content.array");
@@ -1726,8 +1898,8 @@ public class FileMedia extends BorderPane {
     }
 
 
-    private LinkedList<File> getPlayList(String name, boolean adjustValues) {
-        LinkedList<File> ll = null;
+    private PlayList getPlayList(String name, boolean adjustValues) {
+        PlayList ll = null;
         if (name.endsWith(CREATED_PLAYLIST_EXTENSION) && !createdPlayListMap.isEmpty())
             adjustPlayList((ll = createdPlayListMap.get(name.substring(0, name.indexOf(CREATED_PLAYLIST_EXTENSION))).getValue()), adjustValues);
         else if (name.endsWith(SEARCH_PLAYLIST_EXTENSION) && !searchArrayMap.isEmpty())
@@ -1779,7 +1951,7 @@ public class FileMedia extends BorderPane {
         return names;
     }
 
-    private String playListIdentity(LinkedList<File> ll, List<String> names, String nameExtension, String playListExtension) {
+    private String playListIdentity(PlayList ll, List<String> names, String nameExtension, String playListExtension) {
         for (String name: names)
             if (getPlayList(name + playListExtension, false, true) == ll)
                 return name + nameExtension;
@@ -1793,7 +1965,7 @@ public class FileMedia extends BorderPane {
     *@return null if the playlist does not match any of the available playlists
     *and a name string, otherwise.
     */
-    public String playListIdentity(LinkedList<File> ll) {
+    public String playListIdentity(PlayList ll) {
         if (isPlayedPlayListOn) {
             return DEFAULT_PLAYLIST_NAMES.get(4);
         }
@@ -1820,7 +1992,7 @@ public class FileMedia extends BorderPane {
     *@return any of
     *Searched playlist, My playlist, miscellaneous playlist, playlist.
     */
-    public String playListFamily(String name, LinkedList<File> ll) {
+    public String playListFamily(String name, PlayList ll) {
         String[] names = resource.getStringArray("playListFamily.name.array");
         if (!createdPlayListMap.isEmpty() && createdPlayListMap.containsKey(name) && createdPlayListMap.get(name).getValue() == ll)
             return names[0];
@@ -1874,6 +2046,16 @@ public class FileMedia extends BorderPane {
                 return sortDescending;
             case SHUFFLE:
                 return sortShuffle;
+            case SIZE:
+                return sortSize;
+            case LAST_MODIFIED:
+                return sortLastModified;
+            case PLAY_COUNT:
+                return sortPlayCount;
+            case LAST_PLAYED:
+                return sortLastPlayed;
+            case DURATION:
+                return sortDuration;
             default:
                 return sortDefault;
         }
@@ -1881,7 +2063,7 @@ public class FileMedia extends BorderPane {
 
 
     private void operateOnSortItems(RadioMenuItem oldItem, RadioMenuItem newItem) {
-        RadioMenuItem[] items = {sortAscending, sortDescending, sortShuffle, sortDefault};
+        RadioMenuItem[] items = {sortAscending, sortDescending, sortShuffle, sortDefault, sortSize, sortLastModified, sortPlayCount, sortLastPlayed, sortDuration};
         for (RadioMenuItem item: items) {
             if (item != oldItem && item != newItem)
                 continue;
@@ -1982,32 +2164,29 @@ public class FileMedia extends BorderPane {
     }
 
 
-    private boolean deleteFiles(List<File> ppl, List<File> dppl, int filePosition, int... filePositions) {
-        if (ppl.isEmpty() || filePositions.length == 0)
+    /**Deletes files from a playlist, and from every list kept alongside it.
+    *Positions are marked for removal, so that every affected list is compacted in a single pass.
+    *@param ppl
+    *the playlist from which files are deleted
+    *@param dppl
+    *the unsorted order of ppl
+    *@param filePosition
+    *the position of the current file
+    *@param positions
+    *the positions of the files to delete
+    *@return true if the current file of playingPlayList was deleted,
+    *and false otherwise
+    */
+    private boolean deleteFiles(List<File> ppl, List<File> dppl, int filePosition, BitSet positions) {
+        if (ppl.isEmpty() || positions.isEmpty())
             return false;
-        boolean deletedCurrentFile = false;
-        //Sort the contents of filePositions into ascendin order
-        Arrays.sort(filePositions);
-        //Given that the removal of an element inadvertently shifts up the indices of subsequent elements in a list,
-        //We need to do a backward iteration on filePositions contents,
-        //so as not to have other elements shifted into the indices listed for removal.
-        for (int i = filePositions.length-1; i > -1; i--) {
-            int fp = filePositions[i];
-            makeDeletions(ppl, dppl, fp);
-            if (fp == filePosition)
-                deletedCurrentFile = true;
-        }
-        updateMediaInfo(false);
+        boolean deletedCurrentFile = filePosition >= 0 && positions.get(filePosition);
+        makeDeletions(ppl, dppl, positions);
+        commitMediaInfo();
         return (ppl == playingPlayList && deletedCurrentFile);
     }
 
 
-    private boolean deleteFiles(List<File> ppl, List<File> dppl, int filePosition, List<Integer> indices) {
-        int[] array = indices.stream().mapToInt((index) -> (index == null)? 0: index).toArray();
-        return deleteFiles(ppl, dppl, filePosition, array);
-    }
-
-
     private boolean deleteUnavailableMediaMarks() {
         boolean deleted = false;
         Map<String, Trio<File, Duration, Boolean>> map = new TreeMap<>(mediaDurationMap);
@@ -2027,7 +2206,7 @@ public class FileMedia extends BorderPane {
 
 
     private boolean deleteMediaMarkedFiles(List<File> list, Duration duration, int position) {
-        LinkedList<File> ppl = playedPlayList, dppl = defaultPlayedPlayList;
+        PlayList ppl = playedPlayList, dppl = defaultPlayedPlayList;
         int i = indexOf(duration, durationTime);
         boolean b = i == position;
         if (i != -1)
@@ -2042,47 +2221,232 @@ public class FileMedia extends BorderPane {
 
 
     private File makeDeletions(List<File> playingPlayList, List<File> defaultPlayingPlayList, int fileIndex) {
-        if (playingPlayList.isEmpty())
-            return null;
-        File removedFile = playingPlayList.remove(fileIndex);
+        BitSet positions = new BitSet();
+        positions.set(fileIndex);
+        List<File> removedFiles = makeDeletions(playingPlayList, defaultPlayingPlayList, positions);
+        return (removedFiles.isEmpty())? null: removedFiles.get(0);
+    }
+
+
+    /**Removes the files at the marked positions of a playlist,
+    *together with their counterparts in every list kept alongside it,
+    *compacting each list in a single pass,
+    *and adjusting and persisting the affected file position once.
+    *@param playingPlayList
+    *the playlist from which files are removed
+    *@param defaultPlayingPlayList
+    *the unsorted order of playingPlayList
+    *@param fileIndices
+    *the positions of the files to remove
+    *@return the removed files, in the order they held in playingPlayList
+    */
+    private List<File> makeDeletions(List<File> playingPlayList, List<File> defaultPlayingPlayList, BitSet fileIndices) {
+        if (fileIndices.nextSetBit(playingPlayList.size()) != -1)
+            fileIndices = fileIndices.get(0, playingPlayList.size());
+        if (fileIndices.isEmpty())
+            return new ArrayList<>();
+        List<File> removedFiles = removePositions(playingPlayList, fileIndices);
+        journalRemovals(playingPlayList, fileIndices);
+        recordMembership(removedFiles, playingPlayList, false);
+        //The positions and files removed from the unsorted order
+        BitSet defaultIndices = fileIndices;
+        List<File> defaultRemovedFiles = removedFiles;
+        if (playingPlayList != defaultPlayingPlayList) {
+            defaultIndices = firstOccurrences(defaultPlayingPlayList, removedFiles, false);
+            defaultRemovedFiles = removePositions(defaultPlayingPlayList, defaultIndices);
+            journalRemovals(defaultPlayingPlayList, defaultIndices);
+            recordMembership(defaultRemovedFiles, defaultPlayingPlayList, false);
+        }
         if (defaultPlayingPlayList == mostPlayedPlayList || defaultPlayingPlayList == recentPlayList) {
             if (playingPlayList != mostRecentPlayList)
-                mostRecentPlayList.remove(removedFile);
-            if (defaultPlayingPlayList == mostPlayedPlayList && !defaultPlayingPlayList.isEmpty()) {
-                //Find the index of the removed file in mostPlayedPlayList
-                int j = mostPlayedPlayList.indexOf(removedFile);
-                if (j != -1)
-                    timesPlayed.remove(j);
+                journaledRemoval(mostRecentPlayList, removedFiles);
+            if (defaultPlayingPlayList == mostPlayedPlayList) {
+                //timesPlayed is parallel to mostPlayedPlayList
+                BitSet j = defaultIndices.get(0, timesPlayed.size());
+                removePositions(timesPlayed, j);
+                journalRemovals(timesPlayed, j);
+                for (File removedFile: defaultRemovedFiles)
+                    libraryStore.update(removedFile, (entry) -> entry.playCount = 0);
             }
         }
-        else {
-            if ((defaultPlayingPlayList == durationMatch || defaultPlayingPlayList == lastDurationMatch) && !defaultPlayingPlayList.isEmpty()) {
-                if (defaultPlayingPlayList == lastDurationMatch) {
-                    Duration d = lastDurationTime.remove(fileIndex);
-                    if (lastDurationTime != lastDefaultDurationTime)
-                        lastDefaultDurationTime.remove(indexOf(d, lastDefaultDurationTime));
-                }
-                else {  //If defaultPlayingPlayList equals durationMatch
-                    Duration d = durationTime.remove(fileIndex);
-                    if (durationTime != defaultDurationTime)
-                        defaultDurationTime.remove(indexOf(d, defaultDurationTime));
-                }
+        else if (defaultPlayingPlayList == durationMatch || defaultPlayingPlayList == lastDurationMatch) {
+            //Media-marked playlists are serialized alongside their durations, which aren't journaled
+            mediaJournal.requireSnapshot();
+            if (defaultPlayingPlayList == lastDurationMatch) {
+                List<Duration> d = removePositions(lastDurationTime, fileIndices);
+                if (lastDurationTime != lastDefaultDurationTime)
+                    removePositions(lastDefaultDurationTime, firstOccurrences(lastDefaultDurationTime, d, true));
+            }
+            else {  //If defaultPlayingPlayList equals durationMatch
+                List<Duration> d = removePositions(durationTime, fileIndices);
+                if (durationTime != defaultDurationTime)
+                    removePositions(defaultDurationTime, firstOccurrences(defaultDurationTime, d, true));
             }
         }
-        if (playingPlayList != defaultPlayingPlayList)
-            defaultPlayingPlayList.remove(removedFile);
-        //Adjust the value of filePosition
-        if (playingPlayList == this.playingPlayList && fileIndex <= filePosition) {
-            //Decrese the value of filePosition by 1
-            filePosition = (filePosition > 0)? --filePosition: 0;  //since indices of subsequent files will shrink by 1 after file removal
+        //Adjust the value of filePosition, by the number of files removed at or ahead of it
+        if (playingPlayList == this.playingPlayList && fileIndices.nextSetBit(0) <= filePosition) {
+            filePosition = Math.max(filePosition - fileIndices.get(0, filePosition + 1).cardinality(), 0);
+            mediaJournal.filePosition(filePosition);
             preferences.getUserPreferences().putInt("filePosition", filePosition);
-            if (!playingPlayList.isEmpty())
+            if (filePosition < playingPlayList.size())
                 preferences.getUserPreferences().put("currentFile", playingPlayList.get(filePosition).getPath());
         }
-        else if (playingPlayList == playedPlayList && fileIndex <= playedPlayListFilePosition)
-            //Decrese the value of playedPlayListFilePosition by 1
-            playedPlayListFilePosition = (playedPlayListFilePosition > 0)? --playedPlayListFilePosition: 0;  //since indices of subsequent files will shrink by 1 after file removal
-        return removedFile;
+        else if (playingPlayList == playedPlayList && fileIndices.nextSetBit(0) <= playedPlayListFilePosition)
+            playedPlayListFilePosition = Math.max(playedPlayListFilePosition - fileIndices.get(0, playedPlayListFilePosition + 1).cardinality(), 0);
+        return removedFiles;
+    }
+
+
+    /**Removes the first occurrence of each of several files from a list,
+    *logging the removals if the list is serialized.
+    */
+    private void journaledRemoval(List<File> list, List<File> files) {
+        BitSet positions = firstOccurrences(list, files, false);
+        if (!positions.isEmpty()) {
+            List<File> removedFiles = removePositions(list, positions);
+            journalRemovals(list, positions);
+            recordMembership(removedFiles, list, false);
+        }
+    }
+
+
+    /**Removes the elements at the marked positions of a list,
+    *compacting the list in a single pass.
+    *@param list
+    *the list
+    *@param positions
+    *the positions of the elements to remove
+    *@param <T>
+    *the type of elements in the list
+    *@return the removed elements, in the order they held in the list
+    */
+    private static <T> List<T> removePositions(List<T> list, BitSet positions) {
+        List<T> removed = new ArrayList<>(positions.cardinality());
+        int size = list.size();
+        for (int i = positions.nextSetBit(0); i != -1 && i < size; i = positions.nextSetBit(i + 1))
+            removed.add(list.get(i));
+        if (removed.isEmpty())
+            return removed;
+        if (list instanceof PlayList) {
+            ((PlayList) list).removeAll(positions);
+        }
+        else {
+            int kept = positions.nextSetBit(0);
+            for (int i = kept; i < size; i++)
+                if (!positions.get(i))
+                    list.set(kept++, list.get(i));
+            list.subList(kept, size).clear();
+        }
+        return removed;
+    }
+
+
+    /**Marks, for each of several elements, its first occurrence in a list not already marked,
+    *so that an element given twice marks its first two occurrences.
+    *@param list
+    *the list
+    *@param elements
+    *the elements to find
+    *@param identity
+    *true if elements are matched by reference, and false if by equality
+    *@param <T>
+    *the type of elements in the list
+    *@return the marked positions
+    */
+    private static <T> BitSet firstOccurrences(List<T> list, List<T> elements, boolean identity) {
+        if (list instanceof PlayList && !identity)
+            //Found through the position index of the playlist, rather than a scan
+            return ((PlayList) list).positionsOf(elements);
+        BitSet positions = new BitSet(list.size());
+        if (elements.isEmpty())
+            return positions;
+        Map<T, int[]> remaining = (identity)? new java.util.IdentityHashMap<>(): new HashMap<>();
+        for (T element: elements)
+            remaining.computeIfAbsent(element, (e) -> new int[1])[0]++;
+        int found = 0, i = 0;
+        for (T element: list) {
+            int[] count = remaining.get(element);
+            if (count != null && count[0] > 0) {
+                count[0]--;
+                positions.set(i);
+                if (++found == elements.size())
+                    break;
+            }
+            i++;
+        }
+        return positions;
+    }
+
+
+    /**Logs the removal of the elements at the marked positions of a list,
+    *if the list is serialized.
+    *Removals are logged from the highest position down,
+    *so that replaying them one at a time removes the same elements.
+    *@param list
+    *the list from which the elements were removed
+    *@param positions
+    *the positions the removed elements occupied
+    */
+    private void journalRemovals(List<?> list, BitSet positions) {
+        String section = journalSection(list);
+        if (section != null)
+            for (int i = positions.previousSetBit(positions.length() - 1); i != -1; i = positions.previousSetBit(i - 1))
+                mediaJournal.entryRemoved(section, i);
+    }
+
+
+    /**Gets the name with which DataSerializer resolves a serialized list.
+    *@param list
+    *the list whose name is sought
+    *@return the name, or null if the list isn't serialized
+    */
+    private String journalSection(List<?> list) {
+        if (list == playingPlayList)
+            return "playedPlayList";
+        else if (list == defaultPlayingPlayList)
+            return "defaultPlayingPlayList";
+        else if (list == playListEntry)
+            return "playListEntry";
+        else if (list == recentPlayList)
+            return "recentPlayList";
+        else if (list == mostRecentPlayList)
+            return "mostRecentPlayList";
+        else if (list == mostPlayedPlayList)
+            return "mostPlayedPlayList";
+        else if (list == favouritePlayList)
+            return "favouritePlayList";
+        else if (list == timesPlayed)
+            return "timesPlayed";
+        for (Map.Entry<String, Trio<String, PlayList, String>> entry: createdPlayListMap.entrySet())
+            if (entry.getValue().getValue() == list)
+                return "createdPlayList/" + entry.getKey();
+        for (Map.Entry<String, Trio<PlayList, FileFilter, FileSortParameter>> entry: playListContents.entrySet())
+            if (entry.getValue().getKey() == list)
+                return "playListContents/" + entry.getKey();
+        return null;
+    }
+
+
+    /**Records the addition or removal of files in the library store,
+    *if the list is a user playlist.
+    *@param files
+    *the files added or removed
+    *@param list
+    *the list to which the files were added, or from which they were removed
+    *@param member
+    *true if the files were added, and false if removed
+    */
+    private void recordMembership(List<File> files, List<?> list, boolean member) {
+        String section = journalSection(list);
+        if (section == null || !(section.equals("favouritePlayList") || section.startsWith("createdPlayList/")))
+            return;
+        for (File file: new ArrayList<>(files))
+            libraryStore.update(file, (entry) -> {
+                if (member)
+                    entry.playLists.add(section);
+                else
+                    entry.playLists.remove(section);
+            });
     }
 
 
@@ -2093,11 +2457,11 @@ public class FileMedia extends BorderPane {
             File availableFile = (forwardProgression)? Utility.nextItem(unavailableFile, predicate, ppl): Utility.previousItem(unavailableFile, predicate, ppl);
             boolean found = availableFile != null && availableFile != unavailableFile;
             Platform.runLater(() -> {
-                if (GPlayerSettings.playListPrefs().getBoolean("unavailableFiles", true)) {
+                if (GPlayerSettings.settings().unavailableFiles()) {
                     List<File> files = enlist(ppl, ((file) -> !file.exists()));
                     discard(files, ppl, dppl);
                 }
-                if (GPlayerSettings.playListPrefs().getBoolean("unavailableFiles", true))
+                if (GPlayerSettings.settings().unavailableFiles())
                     deleteUnavailableMediaMarks();
             });
             if (!unavailableFile.exists()) {
@@ -2118,66 +2482,263 @@ public class FileMedia extends BorderPane {
     }
 
 
-    private <T extends List<File>> T sortPlayList(T ppl, T dppl, FileSortParameter PARAMETER, T returnList) {
-        if (PARAMETER == FileSortParameter.DEFAULT || returnList.size() < 2)
+    private <T extends List<File>> T sortPlayList(T ppl, T dppl, FileSortParameter PARAMETER, T returnList, long[] playCounts) {
+        if (PARAMETER == FileSortParameter.DEFAULT || PARAMETER == FileSortParameter.SHUFFLE || returnList.size() < 2)
             return returnList;
-        if (dppl != durationMatch && dppl != lastDurationMatch) {
-            if (PARAMETER != FileSortParameter.SHUFFLE) {
-                boolean ascending = PARAMETER == FileSortParameter.ASCENDING;
-                returnList.sort((a, b) -> {
-                    String aString = Utility.retainLettersAndDigits(fileToString(a)), bString = Utility.retainLettersAndDigits(fileToString(b));
-                    return (ascending)? aString.compareToIgnoreCase(bString): bString.compareToIgnoreCase(aString);
-                });
-            }
-            else
-                java.util.Collections.shuffle(returnList);  //Have returnList shuffled
-        }
-        else {  //defaultPlayingPlayList equals either of durationMatch or lastDurationMatch
-            durationTime = new ArrayList<>(durationTime);
-            if (PARAMETER == FileSortParameter.SHUFFLE) {
-                //Random number generator
-                java.util.Random random = new java.util.Random();
-                for (int i = returnList.size()-1; i > 0; i--) {
-                    //Generate a random number between 0 (inclusive), and the value of i + 1 (exclusive)
-                    int randomInt = random.nextInt(i+1);
-                    //So as not to have the item at index randomInt generated again,
-                    //we need to swap its position with that at index i.
-                    swap(returnList, randomInt, i);
-                    //Do likewise for durationTime
-                    swap(durationTime, randomInt, i);
-                }
-            }
-            else { //If either of sortAscending or sortDescending is selected
-                boolean ascending = PARAMETER == FileSortParameter.ASCENDING;
-                for (int i = 0; i < returnList.size()-1; i++) {
-                    //An inner loop
-                    for (int j = i+1; j < returnList.size(); j++) {
-                        String firstString = Utility.retainLettersAndDigits(fileToString(returnList.get(i)));
-                        String secondString = Utility.retainLettersAndDigits(fileToString(returnList.get(j)));
-                        int comparisonNum = firstString.compareToIgnoreCase(secondString);
-                        if ((ascending && comparisonNum > 0) || (!ascending && comparisonNum <= 0)) {
-                            swap(returnList, i, j);
-                            swap(durationTime, i, j);
-                        }
-                    }  //Closes inner loop
-                }  //Closes outer loop
-            }
+        int[] order = sortOrder(returnList, dppl, PARAMETER, playCounts);
+        reorder(returnList, order);
+        if (dppl == durationMatch || dppl == lastDurationMatch) {
+            //durationTime is parallel to returnList, so takes the same order
+            durationTime = new CountedList<>(durationTime);
+            if (durationTime.size() >= order.length)
+                reorder(durationTime, order);
         }
         return returnList;
     }
 
 
-    private void sortPlayList(LinkedList<File> ppl, int position) {
+    /**Gets the order in which playingPlayList is shuffled,
+    *drawing a new one if the list was replaced or modified since the order was drawn,
+    *as the positions drawn may no longer hold the same files.
+    *@return the order
+    */
+    private ShuffleOrder shuffleOrder() {
+        PlayList playList = playingPlayList;
+        if (shuffleOrder == null || shuffledPlayList != playList || shuffledModificationCount != playList.modificationCount())
+            drawShuffleOrder();
+        return shuffleOrder;
+    }
+
+
+    /**Starts a new shuffled order of playingPlayList, with no file drawn.
+    *If smart shuffle is set, files among the most recently played are put off till every other file.
+    *@return the order
+    */
+    private ShuffleOrder drawShuffleOrder() {
+        SettingsSnapshot settings = GPlayerSettings.settings();
+        PlayList playList = playingPlayList;
+        java.util.function.IntPredicate recent = null;
+        if (settings.smartShuffle()) {
+            PlayList recentFiles = recentPlayList;
+            BitSet recentIds = new BitSet();
+            for (int i = 0, window = Math.min(settings.smartShuffleWindow(), recentFiles.size()); i < window; i++)
+                if (recentFiles.id(i) >= 0)
+                    recentIds.set(recentFiles.id(i));
+            recent = ((position) -> playList.id(position) >= 0 && recentIds.get(playList.id(position)));
+        }
+        shuffleOrder = new ShuffleOrder(playList.size(), new java.util.Random(), recent);
+        shuffledPlayList = playList;
+        shuffledModificationCount = playList.modificationCount();
+        return shuffleOrder;
+    }
+
+
+    /**Gets the position of the file to play after the one at filePosition, in shuffled order,
+    *drawing it if play didn't step back from it.
+    *Once every file was drawn, the order is drawn anew if wrapNext is set,
+    *and the last file is replayed otherwise.
+    *@return the position
+    */
+    private int nextShuffledPosition() {
+        ShuffleOrder order = shuffleOrder();
+        order.select(filePosition);
+        if (order.hasNext())
+            return order.next();
+        return (GPlayerSettings.settings().wrapNext())? wrapShuffledOrder(): filePosition;
+    }
+
+
+    /**Gets the position of the file played before the one at filePosition, in shuffled order.
+    *At the file drawn first, the order is drawn anew if wrapPrevious is set,
+    *and the file is replayed otherwise.
+    *@return the position
+    */
+    private int previousShuffledPosition() {
+        ShuffleOrder order = shuffleOrder();
+        order.select(filePosition);
+        if (order.hasPrevious())
+            return order.previous();
+        return (GPlayerSettings.settings().wrapPrevious())? wrapShuffledOrder(): filePosition;
+    }
+
+
+    /**Draws a new shuffled order, beginning with the file at filePosition,
+    *so that the file drawn after it is another, unless it's the only file.
+    *@return the position of the file drawn after it
+    */
+    private int wrapShuffledOrder() {
+        ShuffleOrder order = drawShuffleOrder();
+        order.select(filePosition);
+        return (order.hasNext())? order.next(): filePosition;
+    }
+
+
+    /**Ascertains if any file follows, or precedes, the one at filePosition, in shuffled order.
+    *@param forward
+    *true if files following are sought for, and false if files preceding
+    *@return true if so, and false otherwise
+    */
+    private boolean hasShuffledPosition(boolean forward) {
+        ShuffleOrder order = shuffleOrder();
+        order.select(filePosition);
+        return (forward)? order.hasNext(): order.hasPrevious();
+    }
+
+
+    /**Orders the files of a list by a sort parameter, other than DEFAULT and SHUFFLE.
+    *Orderings by file attributes compare the primitive columns cached for the unsorted list,
+    *which are filled in bulk before sorting, rather than stat the filesystem per comparison.
+    *Files of equal attributes keep their relative order.
+    *@param list
+    *the files to order
+    *@param dppl
+    *the unsorted order of list, whose attribute cache is used
+    *@param PARAMETER
+    *the sort parameter
+    *@param playCounts
+    *the play count of each file of list, by its position, taken by playCounts(), if PARAMETER is PLAY_COUNT
+    *@return the current position of each file, by its position in the sorted order
+    */
+    private int[] sortOrder(List<File> list, List<File> dppl, FileSortParameter PARAMETER, long[] playCounts) {
+        if (PARAMETER == FileSortParameter.ASCENDING || PARAMETER == FileSortParameter.DESCENDING)
+            return sortOrder(list, PARAMETER == FileSortParameter.ASCENDING);
+        int[] ids = (list instanceof PlayList)? ((PlayList) list).toIdArray(): list.stream().mapToInt(FileRegistry::intern).toArray();
+        long[] keys = (PARAMETER == FileSortParameter.PLAY_COUNT)? playCounts: attributeKeys(ids, dppl, PARAMETER);
+        //Highest keys first
+        Integer[] positions = new Integer[keys.length];
+        for (int i = 0; i < positions.length; i++)
+            positions[i] = i;
+        Arrays.parallelSort(positions, (a, b) -> Long.compare(keys[b], keys[a]));
+        int[] order = new int[positions.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = positions[i];
+        return order;
+    }
+
+
+    /**Gets the attributes of files by which they're sorted, as keys, highest first,
+    *from the primitive columns cached for the unsorted list, filled in bulk first.
+    *@param ids
+    *the FileRegistry ids of the files
+    *@param dppl
+    *the unsorted order of the files, whose attribute cache is used
+    *@param PARAMETER
+    *the sort parameter, one of SIZE, LAST_MODIFIED, LAST_PLAYED and DURATION
+    *@return the keys, by position
+    */
+    private long[] attributeKeys(int[] ids, List<File> dppl, FileSortParameter PARAMETER) {
+        AttributeColumns columns = (dppl instanceof PlayList)? ((PlayList) dppl).attributeColumns(): new AttributeColumns();
+        columns.fill(ids, libraryStore);
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            switch (PARAMETER) {
+                case SIZE:
+                    keys[i] = columns.size(ids[i]);
+                    break;
+                case LAST_MODIFIED:
+                    keys[i] = columns.modifiedTime(ids[i]);
+                    break;
+                case LAST_PLAYED:
+                    keys[i] = columns.lastPlayedTime(ids[i]);
+                    break;
+                default:
+                    keys[i] = Math.round(columns.duration(ids[i]));
+            }
+        }
+        return keys;
+    }
+
+
+    /**Orders the files of a list by name, letters and digits only, as collated for the locale, case ignored.
+    *A collation key is computed once per file, in parallel,
+    *and (key, position) pairs are then sorted in parallel.
+    *Files of equal keys keep their relative order.
+    *@param list
+    *the files to order
+    *@param ascending
+    *true if the order is ascending, and false if descending
+    *@return the current position of each file, by its position in the sorted order
+    */
+    private static int[] sortOrder(List<File> list, boolean ascending) {
+        Collator collator = resource.getCollator();
+        collator.setStrength(Collator.SECONDARY);
+        //Collators aren't safe for concurrent use, so each thread keys files with its own copy
+        ThreadLocal<Collator> collators = ThreadLocal.withInitial(() -> (Collator) collator.clone());
+        File[] files = list.toArray(new File[0]);
+        SortKey[] keys = new SortKey[files.length];
+        java.util.stream.IntStream.range(0, files.length).parallel().forEach((i) -> {
+            String name = (files[i] == null)? "": Utility.retainLettersAndDigits(fileToString(files[i]));
+            keys[i] = new SortKey(collators.get().getCollationKey(name), i);
+        });
+        java.util.Comparator<SortKey> comparator = ((a, b) -> a.key.compareTo(b.key));
+        Arrays.parallelSort(keys, (ascending)? comparator: comparator.reversed());
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            order[i] = keys[i].position;
+        return order;
+    }
+
+
+    /**Rearranges the leading elements of a list by a permutation of their positions.
+    *@param list
+    *the list
+    *@param order
+    *the current position of each element, by its new position
+    *@param <T>
+    *the type of elements in the list
+    */
+    @SuppressWarnings("unchecked")
+    private static <T> void reorder(List<T> list, int[] order) {
+        if (list instanceof PlayList && list.size() == order.length) {
+            ((PlayList) list).reorder(order);
+            return;
+        }
+        Object[] elements = list.toArray();
+        for (int i = 0; i < order.length; i++)
+            list.set(i, (T) elements[order[i]]);
+    }
+
+
+    //A collation key paired with the position of its file
+    private static final class SortKey {
+        final CollationKey key;
+        final int position;
+
+        SortKey(CollationKey key, int position) {
+            this.key = key;
+            this.position = position;
+        }
+    }
+
+
+    private void sortPlayList(PlayList ppl, int position) {
+        if (sortShuffle.isSelected()) {
+            //The list is left in its order, and played in an order drawn a file at a time,
+            //beginning with a drawn file, unless play is to resume from a position
+            logger.info("Random playlist sorting");
+            playingPlayList = ppl;
+            ShuffleOrder order = drawShuffleOrder();
+            if (position == 0) {
+                filePosition = order.next();
+            }
+            else {
+                order.select(position);
+                filePosition = position;
+            }
+            organizeControls(filePosition);
+            return;
+        }
         logger.info("Preparing to sort playlist contents of size: " + ppl.size());
+        FileSortParameter PARAMETER = FileSortParameter.getSortParameter();
+        PlayList dppl = defaultPlayingPlayList, returnList = new PlayList(ppl);
+        //Play counts change on this thread, so they're taken before the sort is handed over
+        long[] playCounts = (PARAMETER == FileSortParameter.PLAY_COUNT)? playCounts(returnList): null;
         //Run in the backround on another thread
         initiateBackgroundTask((() -> {
             long startTime = System.nanoTime();
             filePosition = position;
-            if (sortAscending.isSelected() || sortDescending.isSelected())
-                logger.info((sortAscending.isSelected())? "Ascending playlist sorting": "Descending playlist sorting");
-            else
-                logger.info("Random playlist sorting");
-            playingPlayList = sortPlayList(ppl, defaultPlayingPlayList, FileSortParameter.getSortParameter(), new LinkedList<File>(ppl));
+            logger.info(PARAMETER + " playlist sorting");
+            playingPlayList = sortPlayList(ppl, dppl, PARAMETER, returnList, playCounts);
             logger.info("Completed sorting in: " + (System.nanoTime() - startTime));
             //Pass the batton back to the main thread
             Platform.runLater(() -> organizeControls(filePosition));
@@ -2185,6 +2746,19 @@ public class FileMedia extends BorderPane {
     }
 
 
+    /**Gets the play count of each file of a list, as a column to sort by.
+    *@param list
+    *the files
+    *@return the play counts, by position
+    */
+    private long[] playCounts(PlayList list) {
+        long[] counts = new long[list.size()];
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = playCountRanking.count(FileRegistry.file(list.id(i)));
+        return counts;
+    }
+
+
     final private void saveSelectedFile(File selectedFile, int fileNumber) {
         switch (fileNumber) {
             case 0:
@@ -2233,9 +2807,9 @@ public class FileMedia extends BorderPane {
 
     private void setSpeedRate(MenuItem item, double rate) {
         if (item.getText().equals(resource.getString("speedUp.text")))
-            speedRate = (rate > GPlayerSettings.playBackPrefs().getDouble("speedHighestValue", 1.5))? GPlayerSettings.playBackPrefs().getDouble("speedHighestValue", 1.5): rate;
+            speedRate = (rate > GPlayerSettings.settings().speedHighestValue())? GPlayerSettings.settings().speedHighestValue(): rate;
         else if (item.getText().equals(resource.getString("speedDown.text")))
-            speedRate = (rate < GPlayerSettings.playBackPrefs().getDouble("speedLowestValue", 0.8))? GPlayerSettings.playBackPrefs().getDouble("speedLowestValue", 0.8): rate;
+            speedRate = (rate < GPlayerSettings.settings().speedLowestValue())? GPlayerSettings.settings().speedLowestValue(): rate;
         mediaPlayer.setRate(speedRate);
         normalise.setDisable(speedRate == 1.0);
     }
@@ -2320,8 +2894,8 @@ public class FileMedia extends BorderPane {
         if (selectedFile != null)  //If selectedFile refers a valid File
             saveSelectedFile(selectedFile, fileNumber);
         //        playedPlayListFilePosition = (playListEntry == defaultPlayingPlayList)? playedPlayListFilePosition: fp;
-        LinkedList<File> ppl = playingPlayList;
-        LinkedList<File> dppl = defaultPlayingPlayList;
+        PlayList ppl = playingPlayList;
+        PlayList dppl = defaultPlayingPlayList;
         if (playingPlayList != playListEntry) {  //If playingPlayList does not refer to play list
             if (defaultPlayingPlayList == playListEntry) {
                 int filePosition = playListEntry.indexOf(nextFile);
@@ -2332,7 +2906,7 @@ public class FileMedia extends BorderPane {
             else  //If defaultPlayingPlayList does not equals playListEntry
                 playingPlayList = playListEntry;
         }
-        LinkedList<File> nppl = playingPlayList;
+        PlayList nppl = playingPlayList;
         Platform.runLater(() -> {
             if (nppl == playingPlayList) {
                 int nextFilePosition = playingPlayList.indexOf(nextFile);
@@ -2349,7 +2923,7 @@ public class FileMedia extends BorderPane {
         Status status = (mediaPlayer == null)? null: mediaPlayer.getStatus();
         boolean paused = false;
         if (status != null) {
-            if (!isAudio && GPlayerSettings.viewPrefs().getBoolean("stageViewOnly", true) && status == Status.PLAYING) {
+            if (!isAudio && GPlayerSettings.settings().stageViewOnly() && status == Status.PLAYING) {
                 mediaPlayer.pause();  //Pause the media
                 GPlayer.notify(videoPlaybackNotification());
                 paused = true;
@@ -2591,6 +3165,8 @@ public class FileMedia extends BorderPane {
                 quitApplicationIn(selectedTime.get());
             resumePlay(wasPaused);
         });
+        //Reschedule the programmed exit once per settings batch changing either of its settings
+        SettingsTransaction.addReaction(() -> Platform.runLater(() -> quitApplicationIn((GPlayerSettings.settings().enableAppTimeout())? GPlayerSettings.settings().appTimeout(): "...")), "enableAppTimeout", "appTimeout");
 
         //Add the menu items
         //to the file menu
@@ -2668,7 +3244,7 @@ public class FileMedia extends BorderPane {
 
         jumpForward = createMenuItem("jumpForward", true);
         jumpForward.setOnAction((ae) -> {
-            long time = Utility.convertTimeToMillis(GPlayerSettings.playBackPrefs().get("forwardJumpTime", Utility.formatTime(20, 2)));
+            long time = Utility.convertTimeToMillis(GPlayerSettings.settings().forwardJumpTime());
             Duration jumpTime = mediaPlayer.getCurrentTime().add(Duration.millis(time));
             mediaPlayer.seek(jumpTime);
         });
@@ -2677,7 +3253,7 @@ public class FileMedia extends BorderPane {
         jumpForwardByTime.setOnAction((ae) -> {
             wasPaused = pauseMedia();
             //load from resource
-            TextInputDialog dialog = inlayDialog(new TextInputDialog(Utility.formatTime(Duration.millis(Utility.convertTimeToMillis(GPlayerSettings.playBackPrefs().get("forwardJumpTime", Utility.formatTime(20, 2)))), Duration.ZERO)), "jumpForwardByTimeDialog");
+            TextInputDialog dialog = inlayDialog(new TextInputDialog(Utility.formatTime(Duration.millis(Utility.convertTimeToMillis(GPlayerSettings.settings().forwardJumpTime())), Duration.ZERO)), "jumpForwardByTimeDialog");
             Duration currentTime = mediaPlayer.getCurrentTime();
             Optional<String> dialogResult = dialog.showAndWait();  //Awaits user input
             if (dialogResult.isPresent()) {  //If result has been entered,
@@ -2691,7 +3267,7 @@ public class FileMedia extends BorderPane {
 
         jumpBackward = createMenuItem("jumpBackward", true);
         jumpBackward.setOnAction((ae) -> {
-            long time = Utility.convertTimeToMillis(GPlayerSettings.playBackPrefs().get("backwardJumpTime", Utility.formatTime(10, 2)));  //load from resource
+            long time = Utility.convertTimeToMillis(GPlayerSettings.settings().backwardJumpTime());  //load from resource
             Duration jumpTime = mediaPlayer.getCurrentTime().subtract(Duration.millis(time));
             mediaPlayer.seek(jumpTime);
         });
@@ -2699,7 +3275,7 @@ public class FileMedia extends BorderPane {
         jumpBackwardByTime = createMenuItem("jumpBackwardByTime", true);  //Jumps backward by a time specified by the user
         jumpBackwardByTime.setOnAction((ae) -> {
             wasPaused = pauseMedia();
-            TextInputDialog dialog = inlayDialog(new TextInputDialog(Utility.formatTime(Duration.millis(Utility.convertTimeToMillis(GPlayerSettings.playBackPrefs().get("backwardJumpTime", Utility.formatTime(10, 2)))), Duration.ZERO)), "jumpBackwardByTimeDialog");
+            TextInputDialog dialog = inlayDialog(new TextInputDialog(Utility.formatTime(Duration.millis(Utility.convertTimeToMillis(GPlayerSettings.settings().backwardJumpTime())), Duration.ZERO)), "jumpBackwardByTimeDialog");
             Duration currentTime = mediaPlayer.getCurrentTime();
             Optional<String> dialogResult = dialog.showAndWait();  //Awaits user input
             if (dialogResult.isPresent()) {  //If result has been entered,
@@ -2734,10 +3310,10 @@ public class FileMedia extends BorderPane {
         });
 
         speedUp = createMenuItem("speedUp", true);  //For increasing play speed
-        speedUp.setOnAction((ae) -> setSpeedRate(speedUp, (speedRate = speedRate == GPlayerSettings.playBackPrefs().getDouble("speedHighestValue", 1.5)? 1.0: speedRate+GPlayerSettings.playBackPrefs().getDouble("speedStepLevel", 0.05))));
+        speedUp.setOnAction((ae) -> setSpeedRate(speedUp, (speedRate = speedRate == GPlayerSettings.settings().speedHighestValue()? 1.0: speedRate+GPlayerSettings.settings().speedStepLevel())));
 
         speedDown = createMenuItem("speedDown", true);
-        speedDown.setOnAction((ae) -> setSpeedRate(speedDown, (speedRate = speedRate == GPlayerSettings.playBackPrefs().getDouble("speedLowestValue", 0.8)? 1.0: speedRate-GPlayerSettings.playBackPrefs().getDouble("speedStepLevel", 0.05))));
+        speedDown.setOnAction((ae) -> setSpeedRate(speedDown, (speedRate = speedRate == GPlayerSettings.settings().speedLowestValue()? 1.0: speedRate-GPlayerSettings.settings().speedStepLevel())));
 
         //A menu item to normalize speed rate
         normalise = createMenuItem("normalise", true);
@@ -2779,7 +3355,7 @@ public class FileMedia extends BorderPane {
             }
             String uniqueName = (!list.isEmpty())? list.get(list.size()-1): resource.getString("mediaMark.single.word");
             String resultText = Utility.generateUniqueName(uniqueName, list);
-            boolean showDialog = GPlayerSettings.generalPrefs().getBoolean("showMediaMarkDialog", true);
+            boolean showDialog = GPlayerSettings.settings().showMediaMarkDialog();
             if (showDialog) {
                 TextInputDialog dialog = inlayDialog(new TextInputDialog(Utility.generateUniqueName(uniqueName, list)), "mediaPositionMarkerDialog");
                 Optional<String> result = dialog.showAndWait();  //The input is saved in 'result'
@@ -2934,7 +3510,7 @@ public class FileMedia extends BorderPane {
                 sortPlayList(playingPlayList, unfilteredPlayListPosition);
             else
                 organizeControls(unfilteredPlayListPosition);
-            unfilteredPlayList = new LinkedList<>();
+            unfilteredPlayList = new PlayList();
             sortUnfilteredPlayList = false;
             openUnfilteredPlayList.setDisable(true);
         });
@@ -3162,11 +3738,27 @@ public class FileMedia extends BorderPane {
         sortDescending = new RadioMenuItem(resource.getString("sortDescending.text"));  //Alphabetical ordering from Z to A
         sortDescending.setOnAction((ae) -> setSortParameter(FileSortParameter.DESCENDING, isInitialized, true));
 
-        group(new ToggleGroup(), sortDefault, sortAscending, sortDescending, sortShuffle);
+        //Orderings by cached file attributes
+        sortSize = new RadioMenuItem(resource.getString("sortSize.text"));  //Largest file first
+        sortSize.setOnAction((ae) -> setSortParameter(FileSortParameter.SIZE, isInitialized, true));
+
+        sortLastModified = new RadioMenuItem(resource.getString("sortLastModified.text"));  //Latest modified file first
+        sortLastModified.setOnAction((ae) -> setSortParameter(FileSortParameter.LAST_MODIFIED, isInitialized, true));
+
+        sortPlayCount = new RadioMenuItem(resource.getString("sortPlayCount.text"));  //Most played file first
+        sortPlayCount.setOnAction((ae) -> setSortParameter(FileSortParameter.PLAY_COUNT, isInitialized, true));
+
+        sortLastPlayed = new RadioMenuItem(resource.getString("sortLastPlayed.text"));  //Latest played file first
+        sortLastPlayed.setOnAction((ae) -> setSortParameter(FileSortParameter.LAST_PLAYED, isInitialized, true));
+
+        sortDuration = new RadioMenuItem(resource.getString("sortDuration.text"));  //Longest media first
+        sortDuration.setOnAction((ae) -> setSortParameter(FileSortParameter.DURATION, isInitialized, true));
+
+        group(new ToggleGroup(), sortDefault, sortAscending, sortDescending, sortShuffle, sortSize, sortLastModified, sortPlayCount, sortLastPlayed, sortDuration);
 
         //Create a menu to host the radio items
         Menu sort = new Menu(resource.getString("sort.text"));
-        sort.getItems().addAll(sortDefault, sortAscending, sortDescending, sortShuffle);
+        sort.getItems().addAll(sortDefault, sortAscending, sortDescending, sortShuffle, new SeparatorMenuItem(), sortSize, sortLastModified, sortPlayCount, sortLastPlayed, sortDuration);
         playListOptions.getItems().add(sort);  //Adds the sort menu to the play list options menu
         //Add the sort menu to the context menu
         contextMenu.getItems().add(sort);
@@ -3194,8 +3786,16 @@ public class FileMedia extends BorderPane {
     }  //with the configured menu bar
 
 
-    private List<Integer> fileIndices(List<File> filesList, List<File> files) {
-        return enlist(files, ((file) -> filesList.contains(file)), ((file) -> filesList.indexOf(file)));
+    /**Gets the positions of files in a playlist,
+    *a file given more than once marking as many of its occurrences, earliest first.
+    *@param filesList
+    *the playlist
+    *@param files
+    *the files to find
+    *@return the positions of the files found in filesList
+    */
+    private BitSet fileIndices(List<File> filesList, List<File> files) {
+        return firstOccurrences(filesList, files, false);
     }
 
 
@@ -3273,7 +3873,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    private void createMyPlayList(String s, Trio<String, LinkedList<File>, String> t, Menu menu) {
+    private void createMyPlayList(String s, Trio<String, PlayList, String> t, Menu menu) {
         String[] texts = resource.getStringFamily("createdPlayList.text");
         java.util.function.Function<Trio<String, String, Boolean>, MenuItem> itemConstructor = ((constructives) -> {
             MenuItem item = newCreatedPlayListItem(resource.formatMessage(constructives.getKey(), s));
@@ -3289,7 +3889,7 @@ public class FileMedia extends BorderPane {
         });
         final MenuItem addItem = itemConstructor.apply(new Trio<String, String, Boolean>(texts[1], t.getKey(), playingPlayList.isEmpty()));
         addItem.setOnAction((ae) -> {
-            LinkedList<File> ll = t.getValue();
+            PlayList ll = t.getValue();
             File file = currentFile;
             if (file != null)
                 add(Arrays.asList(file), substitute(ll), ll);
@@ -3311,7 +3911,7 @@ public class FileMedia extends BorderPane {
     }
 
 
-    private void updateMyPlayList(String s, Trio<String, LinkedList<File>, String> t, MenuItem... items) {
+    private void updateMyPlayList(String s, Trio<String, PlayList, String> t, MenuItem... items) {
         String formerText = createdPlayListName(items[0].getText());
         String[] texts = resource.getStringFamily("createdPlayList.text");
         items[0].setText(resource.formatMessage(texts[1], s));
@@ -3339,6 +3939,9 @@ public class FileMedia extends BorderPane {
 
     private void updateMyPlayList(String text, Menu menu) {
         //Remove the playlist contents from createdPlayListMap
+        Trio<String, PlayList, String> removedPlayList = createdPlayListMap.get(text);
+        if (removedPlayList != null)
+            recordMembership(removedPlayList.getValue(), removedPlayList.getValue(), false);
         createdPlayListMap.remove(text);
         //Then, Eliminate its menu options from myPlayList
         int i = createdPlayListIndex(text);
@@ -3378,7 +3981,7 @@ public class FileMedia extends BorderPane {
         ArrayList<String> al1 = new ArrayList<>(), al2 = new ArrayList<>();
         //Fill both collections
         for (String s: keys) {
-            Trio<String, LinkedList<File>, String> t = createdPlayListMap.get(s);
+            Trio<String, PlayList, String> t = createdPlayListMap.get(s);
             String k = t.getKey(), e = t.getExtension();
             if (k != null && !k.isEmpty()) {
                 k = k.substring(k.length()-1);
@@ -3438,7 +4041,7 @@ public class FileMedia extends BorderPane {
                     text1 = Utility.retainLettersAndDigits(text1).toLowerCase();
                     if (texts.length == 0) {
                         //Insert the new playlist into createdPlayListMap
-                        createdPlayListMap.put(text1, new Trio<>(text2, new LinkedList<>(), text3));
+                        createdPlayListMap.put(text1, new Trio<>(text2, new PlayList(), text3));
                         //Create the necessary submenu to insert the playlist options
                         createMyPlayList(text1, createdPlayListMap.get(text1), playListOptions);
                     }
@@ -3451,7 +4054,7 @@ public class FileMedia extends BorderPane {
                             String itemText = item.getText();
                             if (itemText.substring(itemText.lastIndexOf(' ')+1).equals(texts[0])) {  //We've found the edited playlist
                                 //Retrieve the contents of the playlist from createdPlayListMap
-                                Trio<String, LinkedList<File>, String> t = createdPlayListMap.get(texts[0]);
+                                Trio<String, PlayList, String> t = createdPlayListMap.get(texts[0]);
                                 //Make the necessary modifications
                                 t.setKey(text2);
                                 t.setExtension(text3);
@@ -3503,8 +4106,8 @@ public class FileMedia extends BorderPane {
         Thread thread = new Thread(new Runnable() {
             @Override
             public void run() {
-                final LinkedList<File> dm = new LinkedList<>();
-                final ArrayList<Duration> dt = new ArrayList<>();
+                final PlayList dm = new PlayList();
+                final CountedList<Duration> dt = new CountedList<>();
                 String text = result.toLowerCase().trim();
                 for (Map.Entry<String, Trio<File, Duration, Boolean>> map: mediaDurationSet) {  //A for-each loop
                     if (map.getKey().substring(0, 1).equals(" "))  //If the first character in the retrieved string is a space ' ',
@@ -3618,8 +4221,8 @@ public class FileMedia extends BorderPane {
 
     private void conductFileMatch(int searchList) {
         String text = searchArrayString.get(searchList);
-        Duo<LinkedList<File>, FileFilter> d = searchArrayMap.get(text);
-        LinkedList<File> ll = d.getKey();
+        Duo<PlayList, FileFilter> d = searchArrayMap.get(text);
+        PlayList ll = d.getKey();
         if (!isCurrentParameter(d.getValue()))
             setSearchParameter(d.getValue(), false, false);
         newSearch = false;
@@ -3627,12 +4230,12 @@ public class FileMedia extends BorderPane {
     }
 
 
-    void conductFileMatch(LinkedList<File> searchResult, String text, boolean newSearch, boolean play, int position, int... intSearchList) {
+    void conductFileMatch(PlayList searchResult, String text, boolean newSearch, boolean play, int position, int... intSearchList) {
         if (!searchResult.isEmpty()) {
             boolean isOfFamily = (defaultPlayedPlayList == previousPlayListSearch || defaultPlayedPlayList == nextPlayListSearch);
             FileSortParameter p = FileSortParameter.getSortParameter();
-            LinkedList<File> mostRecentPlayList = playedPlayList;  //Temporary playedPlayList holder
-            LinkedList<File> recentPlayList = defaultPlayedPlayList;
+            PlayList mostRecentPlayList = playedPlayList;  //Temporary playedPlayList holder
+            PlayList recentPlayList = defaultPlayedPlayList;
             int recentPosition = playedPlayListFilePosition;  //Temporary playedPlayListFilePosition holder
             int recentSearchList = lastSearchList;  //Temporary lastSearchList holder
             if (intSearchList.length == 0) {  //If the search is conducted by invoking the search control
@@ -3693,7 +4296,7 @@ public class FileMedia extends BorderPane {
                     searchArrayString.add(text);
                     searchList = searchArrayString.size()-1;
                 }
-                searchArrayMap.put(text, new Duo<LinkedList<File>, FileFilter>(playingPlayList, FileFilter.getDefaultFilter()));
+                searchArrayMap.put(text, new Duo<PlayList, FileFilter>(playingPlayList, FileFilter.getDefaultFilter()));
                 if (!isCurrentParameter(FileFilter.getDefaultFilter()))
                     setSearchParameter(FileFilter.getDefaultFilter(), false, false);
             }
@@ -3719,7 +4322,7 @@ public class FileMedia extends BorderPane {
             if (!playingPlayList.isEmpty()) {
                 boolean videoFile = !isAudioFile(playingPlayList.get(filePosition));
                 int f = filePosition;
-                if (autoPlay && videoFile && !stage.isFocused() && !isDialogShowing && GPlayerSettings.viewPrefs().getBoolean("windowViewOnly", false))
+                if (autoPlay && videoFile && !stage.isFocused() && !isDialogShowing && GPlayerSettings.settings().windowViewOnly())
                     f = getNextAudioFileIndex((currentFile == null)? f: playingPlayList.indexOf(currentFile), (previous_next == next));
                 if (f != -1)
                     this.filePosition = f;
@@ -3752,20 +4355,21 @@ public class FileMedia extends BorderPane {
             isMediaReady=encounteredMediaError=false;
             currentFile = file;
             currentFileInfo = getFileInfo(file);
-            speedRate = (GPlayerSettings.playBackPrefs().getBoolean("revertSpeedRate", false))? GPlayerSettings.playBackPrefs().getDouble("speedRate", 1.0): speedRate;
+            speedRate = (GPlayerSettings.settings().revertSpeedRate())? GPlayerSettings.settings().speedRate(): speedRate;
             if (!sameFile) {
                 isAudio = isAudioFile(file);
                 fileName = new FileInfo(file).getName();
             }
             try {
                 //Create a media object with the passed file
-                media = new Media(file.toURI().toString());
+                MediaPlayer prepared = takePreparedMediaPlayer(file);
+                media = (prepared != null)? prepared.getMedia(): new Media(file.toURI().toString());
                 if (media.getError() == null) {  //If no error is generated in media creation
                     //instantiate a Runnable to catch asynchronous error, to begin with
                     media.setOnError(() -> initializeMediaErrorAlert(file, String.join(" ", resource.getAndFormatMessage("mediaErrorAlert.media.message", fileName), resource.getString("confirmFileDeletion.message"))));
                     //Then, create a mediaPlayer object with the instantiated media
                     try {
-                        mediaPlayer = new MediaPlayer(media);
+                        mediaPlayer = (prepared != null)? prepared: new MediaPlayer(media);
                         if (mediaPlayer.getError() == null) {
                             //Catch asynchronous error
                             mediaPlayer.setOnError(() -> initializeMediaErrorAlert(file, String.join(" ", resource.getAndFormatMessage("mediaErrorAlert.play.message", fileName), resource.getString("confirmFileDeletion.message"))));
@@ -3795,34 +4399,14 @@ public class FileMedia extends BorderPane {
                                     initializeMediaErrorAlert(file, String.join(" ", resource.getAndFormatMessage("mediaErrorAlert.play.message", fileName), resource.getString("confirmFileDeletion.message")));
                             });
 
-                            mediaPlayer.setOnReady(() -> {  //When the media has been rolled in
-                                logger.info("Mediaplayer is ready");
-                                Platform.runLater(() -> setStageTitle(String.join(" - ", fileName, GPlayer.stageTitle)));
-                                if (defaultPlayingPlayList == durationMatch || defaultPlayingPlayList == lastDurationMatch) {
-                                    isMarked = true;
-                                    if (defaultPlayingPlayList == lastDurationMatch) {
-                                        //Reverse the order of things
-                                        LinkedList<File> dm = durationMatch;  //Temporary reference holder
-                                        ArrayList<Duration> dt = durationTime, ddt = defaultDurationTime;  //Temporary reference holders
-                                        //Assign durationMatch the contents of lastDurationMatch
-                                        durationMatch = lastDurationMatch;
-                                        //Assign durationTime the contents of lastDurationTime
-                                        durationTime = lastDurationTime;
-                                        //and defaultDurationTime the contents of lastDefaultDurationTime
-                                        defaultDurationTime = lastDefaultDurationTime;
-                                        //Then, assign lastDurationMatch, lastDurationTime and defaultDurationTime the contents of dm, dt and ddt respectively
-                                        lastDurationMatch = dm;
-                                        lastDurationTime = dt;
-                                        lastDefaultDurationTime = ddt;
-                                    }
-                                    if (defaultPlayingPlayList == playingPlayList && durationTime != defaultDurationTime)
-                                        durationTime = defaultDurationTime;
-                                }
-                                else
-                                    isMarked = false;
-                                duration = mediaPlayer.getMedia().getDuration();  //The duration of the current media is retrieved
-                                updateValues();
-                            });
+                            MediaPlayer player = mediaPlayer;
+                            player.setOnReady(() -> reflectMediaReadiness(player));  //When the media has been rolled in
+                            if (prepared != null && prepared.getStatus() == Status.READY) {
+                                //The prepared player was readied before its handlers were set, so won't report it
+                                if (resumePosition(file) == null && prepared.getCurrentTime().greaterThan(Duration.ZERO))
+                                    prepared.seek(Duration.ZERO);  //The file doesn't resume where the hot-start record left it
+                                Platform.runLater(() -> reflectMediaReadiness(player));
+                            }
 
                             mediaPlayer.setOnPlaying(() -> {  //while the media is playing
                                 isMediaReady = true;
@@ -3851,7 +4435,20 @@ public class FileMedia extends BorderPane {
                                     Platform.runLater(() -> makeListViewSelection(filePosition));
                                     if (playListSearch != null && filePosition != playListSearch.filePositionHolder)
                                         playListSearch.isModified = true;
-                                    updateMediaInfo(false);
+                                    mediaJournal.filePlayed(file.getPath(), filePosition);
+                                    double millis = (duration == null || duration.isUnknown() || duration.isIndefinite())? Double.NaN: duration.toMillis();
+                                    libraryStore.update(file, (entry) -> {
+                                        entry.playCount++;
+                                        entry.lastPlayed = System.currentTimeMillis();
+                                        entry.mediaType = (isAudio)? LibraryStore.AUDIO_MEDIA: LibraryStore.VIDEO_MEDIA;
+                                        if (!Double.isNaN(millis))
+                                            entry.duration = millis;
+                                    });
+                                    //The last played time and duration cached for sorting are now out of date
+                                    AttributeColumns columns = defaultPlayingPlayList.cachedAttributeColumns();
+                                    if (columns != null)
+                                        columns.invalidate(FileRegistry.find(file));
+                                    commitMediaInfo();
                                     if (!stage.isFocused())
                                         GPlayer.notify(resource.getAndFormatMessage("playing.message", fileName));
                                 }  //End of the isPaused if expression
@@ -3883,7 +4480,7 @@ public class FileMedia extends BorderPane {
                                 if (quitApplicationOnMediaEnd.isSelected() || quitApplicationOnPlayListEnd.isSelected()) {
                                     exit = (quitApplicationOnMediaEnd.isSelected())? true: false;
                                     if (!exit)
-                                        exit = filePosition == playingPlayList.size()-1;
+                                        exit = (sortShuffle.isSelected())? !hasShuffledPosition(true): filePosition == playingPlayList.size()-1;
                                     if (exit)
                                         exitApplication.fire();
                                 }
@@ -3902,10 +4499,11 @@ public class FileMedia extends BorderPane {
                                     }
                                     else {  //If repaet is off
                                         if (multipleSelection) {
-                                            if (!backwardPlay.isSelected() && filePosition < playingPlayList.size()-2)
-                                                next.fire();
-                                            else if (backwardPlay.isSelected() && filePosition > 0)
-                                                previous.fire();
+                                            boolean forward = !backwardPlay.isSelected();
+                                            //In shuffled order, play ends with the order, not with the list
+                                            boolean proceed = (sortShuffle.isSelected())? hasShuffledPosition(forward): (forward)? filePosition < playingPlayList.size()-2: filePosition > 0;
+                                            if (proceed)
+                                                ((forward)? next: previous).fire();
                                             else
                                                 multipleSelection = false;
                                         }
@@ -3949,7 +4547,7 @@ public class FileMedia extends BorderPane {
                                 verifyPlayStatus(mediaPlayer, file, fileName, bp, Duration.seconds(2));
 
                             if (!isAudio && bp) {
-                                if ((!stage.isFocused() && !isDialogShowing && GPlayerSettings.viewPrefs().getBoolean("windowViewOnly", false)) || (isDialogShowing && GPlayerSettings.viewPrefs().getBoolean("stageViewOnly", true))) {
+                                if ((!stage.isFocused() && !isDialogShowing && GPlayerSettings.settings().windowViewOnly()) || (isDialogShowing && GPlayerSettings.settings().stageViewOnly())) {
                                     mediaPlayer.pause();
                                     wasPaused=isMediaReady=true;
                                 }
@@ -4012,7 +4610,7 @@ public class FileMedia extends BorderPane {
                 else
                     previous_next.fire();
             }
-            if (GPlayerSettings.playListPrefs().getBoolean("unplayableFiles", true))
+            if (GPlayerSettings.settings().unplayableFiles())
                 unplayableFiles.add(file);
         });
     }
@@ -4201,6 +4799,50 @@ public class FileMedia extends BorderPane {
     }
 
 
+    /**Completes the set-up of a media player once its media is ready,
+    *by retrieving the media duration, and reconciling media-marked playlists.
+    *Handles each player once, and only if it's still the current one.
+    *@param player
+    *the media player whose media is ready
+    */
+    private void reflectMediaReadiness(MediaPlayer player) {
+        if (player != mediaPlayer || player == readiedMediaPlayer)
+            return;
+        readiedMediaPlayer = player;
+        logger.info("Mediaplayer is ready");
+        Platform.runLater(() -> setStageTitle(String.join(" - ", fileName, GPlayer.stageTitle)));
+        if (isMarked)
+            //Media-marked playlists are serialized alongside their durations, which aren't journaled
+            mediaJournal.requireSnapshot();
+        if (defaultPlayingPlayList == durationMatch || defaultPlayingPlayList == lastDurationMatch) {
+            isMarked = true;
+            if (defaultPlayingPlayList == lastDurationMatch) {
+                //Reverse the order of things
+                PlayList dm = durationMatch;  //Temporary reference holder
+                CountedList<Duration> dt = durationTime, ddt = defaultDurationTime;  //Temporary reference holders
+                //Assign durationMatch the contents of lastDurationMatch
+                durationMatch = lastDurationMatch;
+                //Assign durationTime the contents of lastDurationTime
+                durationTime = lastDurationTime;
+                //and defaultDurationTime the contents of lastDefaultDurationTime
+                defaultDurationTime = lastDefaultDurationTime;
+                //Then, assign lastDurationMatch, lastDurationTime and defaultDurationTime the contents of dm, dt and ddt respectively
+                lastDurationMatch = dm;
+                lastDurationTime = dt;
+                lastDefaultDurationTime = ddt;
+            }
+            if (defaultPlayingPlayList == playingPlayList && durationTime != defaultDurationTime)
+                durationTime = defaultDurationTime;
+        }
+        else
+            isMarked = false;
+        if (isMarked)
+            mediaJournal.requireSnapshot();
+        duration = mediaPlayer.getMedia().getDuration();  //The duration of the current media is retrieved
+        updateValues();
+    }
+
+
     private void seekToMarkedPosition(File file) {
         isMarked = (playingPlayList.isEmpty() || !playingPlayList.contains(file))? false: isMarked;
         if (isMarked) {  //If isMarked is set to true
@@ -4213,13 +4855,25 @@ public class FileMedia extends BorderPane {
             }
         }
         else {  //If isMarked is not set to true
-            Trio<File, Duration, Boolean> t = mediaDurationMap.get(" " + file.getPath());
-            if (t != null && (markMediaPosition(t.getKey()) || t.getExtension()))
-                mediaPlayer.seek(t.getValue());  //Retrieve the associated duration, and have the player move to that location
+            Duration position = resumePosition(file);
+            if (position != null)
+                mediaPlayer.seek(position);  //Have the player move to the position playback stopped at
         }  //End of the isMarked else-block
     }
 
 
+    /**Gets the position at which playback of a file is to resume,
+    *being the position it stopped at, if marked.
+    *@param file
+    *the file
+    *@return the position, or null if playback isn't to resume
+    */
+    private Duration resumePosition(File file) {
+        Trio<File, Duration, Boolean> t = mediaDurationMap.get(" " + file.getPath());
+        return (t != null && (markMediaPosition(t.getKey()) || t.getExtension()))? t.getValue(): null;
+    }
+
+
     private void configureMediaMarkers(File file, Duration... durations) {
         Duration duration = (durations.length == 0)? Duration.millis(-1.0): durations[0];
         if (durations.length == 0) {
@@ -4251,16 +4905,20 @@ public class FileMedia extends BorderPane {
         String str = String.join(File.separator, file.getPath(), string);
         Duration d = duration;
         if (put) {
-            mediaDurationMap.put(str, new Trio<File, Duration, Boolean>(file, duration, false));
+            mediaDurationMap.put(str, new Trio<File, Duration, Boolean>(FileRegistry.canonical(file), duration, false));
+            mediaJournal.markerPut(str, file.getPath(), duration.toMillis(), false);
+            libraryStore.update(file, (entry) -> entry.markers.put(string, duration.toMillis()));
             if (file.equals(currentFile)) {
                 durationSet.put(duration, str);
                 addToAvailableMediaMarks(str, duration);
             }
         }
         else {
-            mediaDurationMap.remove(str);
-            if (!file.exists())
-                mediaDurationMap.remove(" " + str);
+            if (mediaDurationMap.remove(str) != null)
+                mediaJournal.markerRemoved(str);
+            if (!file.exists() && mediaDurationMap.remove(" " + str) != null)
+                mediaJournal.markerRemoved(" " + str);
+            libraryStore.update(file, (entry) -> entry.markers.remove(string));
             if (file.equals(currentFile)) {
                 //Obtain a set of the keys in durationSet
                 Set<Duration> durationKeys = durationSet.keySet();
@@ -4275,7 +4933,7 @@ public class FileMedia extends BorderPane {
         }
         if (file.equals(currentFile))
             configureMediaMarkers(file, d);
-        updateMediaInfo(false);
+        commitMediaInfo();
     }
 
 
@@ -4637,7 +5295,7 @@ public class FileMedia extends BorderPane {
     *or -1 if no audio file was found
     */
     private int getNextAudioFileIndex(int f, boolean forward) {
-        LinkedList<File> ppl = playingPlayList;
+        PlayList ppl = playingPlayList;
         File previousFile = playingPlayList.get(f);
         File nextFile = (forward)? Utility.nextItem(previousFile, FileMedia::isAudioFile, ppl): Utility.previousItem(previousFile, FileMedia::isAudioFile, ppl);
         return (nextFile == previousFile)? -1: ppl.indexOf(nextFile);
@@ -4785,49 +5443,41 @@ public class FileMedia extends BorderPane {
     *and false otherwise
     */
     private boolean updateRecentPlayList(File file) {
-        boolean updated = false;
-        switch(recentPlayList.size()) {
-            case 0:
-                recentPlayList.add(file);
-                openRecentPlayList.setDisable(false);
-                updated = true;
-                break;
-            default:
-                if (!file.equals(recentPlayList.get(0))) {
-                    updated = true;
-                    //Remove any previous occurrence of this file
-                    recentPlayList.remove(file);
-                    //Now insert this file at the head of the playlist
-                    recentPlayList.add(0, file);
-                    openRecentPlayList.setDisable(false);
-                }
-        }
+        boolean updated = moveToFront(recentPlayList, file);
+        if (updated)
+            openRecentPlayList.setDisable(false);
         return updated;
     }
 
 
+    /**Moves a file to the head of a recency-ordered list,
+    *dropping the least recent files beyond the recentPlayListLimit setting.
+    *Files dropped remain in the play history of libraryStore, which records when each file was last played.
+    *The file is found through the index of the list, which the move keeps current,
+    *and moving it shifts only the ids ahead of it, in a single copy.
+    *@param recentPlayList
+    *the list to update
+    *@param file
+    *the most recent file
+    *@return true if the list was modified
+    *and false otherwise
+    */
+    private static boolean moveToFront(PlayList recentPlayList, File file) {
+        if (recentPlayList.moveToFront(FileRegistry.intern(file)) == 0)
+            return false;
+        int limit = GPlayerSettings.settings().recentPlayListLimit();
+        if (limit > 0 && recentPlayList.size() > limit)
+            recentPlayList.subList(limit, recentPlayList.size()).clear();
+        return true;
+    }
+
+
     /**Updates mostPlayedPlayList.
     *@param file
     *the file to add on
     */
     private void updateMostPlayedFiles(File file) {
-        int fileIndex = mostPlayedPlayList.indexOf(file);
-        if (fileIndex == -1) {  //File has not been previously added
-            mostPlayedPlayList.add(file);  //Include in mostPlayedPlayList
-            timesPlayed.add(0);  //and another integer to timesPlayed
-            fileIndex = mostPlayedPlayList.size()-1;
-        }
-        int frequency = timesPlayed.get(fileIndex);
-        timesPlayed.set(fileIndex, ++frequency);
-        int searchIndex = -1;
-        //Let's find an index with a lower frequency between 0 and fileIndex
-        while (++searchIndex < fileIndex && timesPlayed.get(searchIndex) >= frequency);
-        if (searchIndex != fileIndex) {  //We found one!
-            //Let's adjust the file sequence in mostPlayedPlayList and timesPlayed,
-            //by removing their respective items at fileIndex, and inserting them at the index occupied by the file with the lower frequency
-            mostPlayedPlayList.add(searchIndex, mostPlayedPlayList.remove(fileIndex));
-            timesPlayed.add(searchIndex, timesPlayed.remove(fileIndex));
-        }
+        playCountRanking.increment(file);
     }
 
 
@@ -4838,8 +5488,8 @@ public class FileMedia extends BorderPane {
     *name of the invoking playlist
     *@return a reference to mostRecentPlayList
     */
-    private LinkedList<File> getMostRecentPlayList(LinkedList<File> ll, String name) {
-        mostRecentPlayList = new LinkedList<>();
+    private PlayList getMostRecentPlayList(PlayList ll, String name) {
+        mostRecentPlayList = new PlayList();
         java.util.Iterator<File> iterator = null;
         String[] options = (name.startsWith("recent"))? GPlayerSettings.recentPlayListOptions: GPlayerSettings.mostPlayedPlayListOptions;
         if (GPlayerSettings.playListPrefs().get(name, options[0]).equals(options[0]))
@@ -5037,7 +5687,7 @@ public class FileMedia extends BorderPane {
 
 
     private boolean markMediaPosition(File f) {
-        boolean mark = GPlayerSettings.generalPrefs().getBoolean("mediaMark", true);
+        boolean mark = GPlayerSettings.settings().mediaMark();
         if (mark) {
             String[] group = GPlayerSettings.fileGroup;
             String file = GPlayerSettings.generalPrefs().get("mediaMarkFiles", group[1]);
@@ -5105,8 +5755,7 @@ public class FileMedia extends BorderPane {
         Platform.runLater(() -> {
             if (ppl == playingPlayList) {
                 if (!list.contains(null)) {
-                    playListView.setAll(list);
-                    makeListViewSelection(filePosition);
+                    updatePlayListView(list, filePosition);
                     updateMediaInfo(false);
                 }
                 else {
@@ -5119,15 +5768,114 @@ public class FileMedia extends BorderPane {
     }
 
 
-    /**Updates serialized media info
+    /**Brings playListView in line with a list, applying only the difference between them,
+    *so that listView and listViewSearch re-render and re-index only the entries that changed.
+    *The entries common to the heads and tails of both are kept,
+    *a reordering of the entries between is applied as a single permutation,
+    *and any other change as a removal followed by an insertion,
+    *with large insertions spread over successive pulses, VIEW_CHUNK_SIZE entries per pulse,
+    *so that filling the view never stalls the FX thread.
+    *@param list
+    *the files to display, which mustn't be modified while being inserted
+    *@param filePosition
+    *the position of the file to select, once the list is displayed
+    */
+    private void updatePlayListView(List<File> list, int filePosition) {
+        long fill = ++playListViewFill;
+        int oldSize = playListView.size(), newSize = list.size();
+        int limit = Math.min(oldSize, newSize);
+        int prefix = 0;
+        while (prefix < limit && playListView.get(prefix).equals(list.get(prefix)))
+            prefix++;
+        int suffix = 0;
+        while (suffix < limit - prefix && playListView.get(oldSize - suffix - 1).equals(list.get(newSize - suffix - 1)))
+            suffix++;
+        int removed = oldSize - prefix - suffix, added = newSize - prefix - suffix;
+        if (removed == added && removed > 1) {
+            Map<File, Integer> targets = permutationTargets(list, prefix, prefix + added);
+            if (targets != null) {
+                FXCollections.sort(playListView, java.util.Comparator.comparingInt(targets::get));
+                makeListViewSelection(filePosition);
+                return;
+            }
+        }
+        if (removed > 0)
+            playListView.remove(prefix, prefix + removed);
+        insertIntoPlayListView(list, prefix, prefix + added, filePosition, fill);
+    }
+
+
+    //Maps each entry of playListView to its position in a list holding the same entries, reordered between from and to,
+    //or returns null if the entries between differ, or if any is repeated
+    private Map<File, Integer> permutationTargets(List<File> list, int from, int to) {
+        Map<File, Integer> positions = new HashMap<>();
+        for (int i = from; i < to; i++)
+            if (positions.put(list.get(i), i) != null)
+                return null;
+        Map<File, Integer> targets = new java.util.IdentityHashMap<>();
+        for (int i = 0; i < playListView.size(); i++) {
+            File file = playListView.get(i);
+            Integer target = (i < from || i >= to)? Integer.valueOf(i): positions.remove(file);
+            if (target == null || targets.put(file, target) != null)
+                return null;
+        }
+        return targets;
+    }
+
+
+    //Inserts the entries of a list between from and to into playListView, a chunk per pulse,
+    //unless a later update of playListView supersedes this one
+    private void insertIntoPlayListView(List<File> list, int from, int to, int filePosition, long fill) {
+        if (fill != playListViewFill)
+            return;
+        int chunkEnd = Math.min(to, from + VIEW_CHUNK_SIZE);
+        if (chunkEnd > from)
+            playListView.addAll(from, list.subList(from, chunkEnd));
+        if (chunkEnd < to)
+            waitThenRun(Duration.millis(1), () -> insertIntoPlayListView(list, chunkEnd, to, filePosition, fill));
+        else
+            makeListViewSelection(filePosition);
+    }
+
+
+    /**Publishes a playlist through playListProperty,
+    *once no further change is published within the following three seconds,
+    *so that a burst of changes is copied out, and acted upon by listeners, only once.
+    *@param list
+    *the playlist
+    */
+    private void publishPlayList(List<File> list) {
+        publishedPlayList = list;
+        playListPublisher.playFromStart();
+    }
+
+
+    /**Updates serialized media info.
+    *Updates requested within the sync window of a pending one are coalesced into it,
+    *and written on a background thread.
     *@param exit
-    *flags if the media is to be stopped prior to update
+    *flags if the media is to be stopped, and media info written, prior to return
     */
     public void updateMediaInfo(boolean exit) {
-        if (exit)
-            serializeMediaInfo(exit);
+        if (exit) {
+            if (mediaPlayer != null && (mediaPlayer.getStatus() == Status.PLAYING || mediaPlayer.getStatus() == Status.PAUSED || endOfFile))
+                initiateStoppage(mediaPlayer, currentFile, endOfFile);
+            mediaInfoWriter.flush();
+            libraryStore.close();
+            HotStart.write(new File(GPlayer.RESOURCE_PATH, "hotstart"), playingPlayList, filePosition, currentFile, preferences.getUserPreferences().getDouble("mediaStopPosition", 0.0), GPlayerSettings.viewPrefs().getInt("hotStartEntries", 50));
+            logger.info("Media info sync requests: " + mediaInfoWriter.getRequestedWrites() + "; writes: " + mediaInfoWriter.getPerformedWrites());
+        }
         else
-            Platform.runLater(() -> serializeMediaInfo(exit));
+            mediaInfoWriter.request();
+    }
+
+
+    /**Pushes journaled media info changes to disk,
+    *serializing a fresh snapshot only when the journal asks for one.
+    */
+    private void commitMediaInfo() {
+        if (mediaJournal.commit())
+            updateMediaInfo(false);
     }
 
 
@@ -5135,7 +5883,7 @@ public class FileMedia extends BorderPane {
     *@return DataSerializer object
     */
     private DataSerializer serializableMediaInfo() {
-        ArrayList<Duration> dt = new ArrayList<>();
+        CountedList<Duration> dt = new CountedList<>();
         int size = durationTime.size() + defaultDurationTime.size();
         if (size > 0) {
             dt.ensureCapacity(size);
@@ -5151,43 +5899,91 @@ public class FileMedia extends BorderPane {
     }
 
 
-    private void serializeMediaInfo(boolean exit) {
-        if (exit)
-            if (mediaPlayer != null && (mediaPlayer.getStatus() == Status.PLAYING || mediaPlayer.getStatus() == Status.PAUSED || endOfFile))
-                initiateStoppage(mediaPlayer, currentFile, endOfFile);
-        logger.info("Preparing to sync media info");
-        if (isInitialized) {
-            String fileName = "file", tempFileName = "tempfile";
-            String file = (!preferences.getUserPreferences().get("serializedFile", "").equals(fileName))? SERIALIZATION_PATH: String.join("/", GPlayer.RESOURCE_PATH, tempFileName);
-            File serializedFile = GPlayer.serializeMediaInfo(file, serializableMediaInfo());
-            if (serializedFile != null) {
-                preferences.getUserPreferences().put("serializedFile", (file == SERIALIZATION_PATH)? fileName: tempFileName);
-                if (file != SERIALIZATION_PATH) {
-                    File oldFile = new File(SERIALIZATION_PATH);
-                    boolean rename = (oldFile.exists())? oldFile.delete(): true;
-                    if (rename && serializedFile.renameTo(oldFile))
-                        preferences.getUserPreferences().put("serializedFile", fileName);
-                }
-            }
-        }
+    /**Captures a copy of the media info to be serialized,
+    *tagged with the journal sequence it contains.
+    *Nothing is captured if neither the playlists nor the remaining info changed since the last write,
+    *as told by their modification counts, so that checking costs no scan of their contents.
+    *@return the copy, or null if the media info isn't yet initialized or is unchanged
+    */
+    private DataSerializer captureMediaInfo() {
+        if (!isInitialized)
+            return null;
+        long journalSequence = mediaJournal.sequence();
+        long headModificationCount = headModificationCount(journalSequence);
+        if (headModificationCount == writtenHeadModificationCount && arePlayListsWritten())
+            return null;
+        DataSerializer serialization = serializableMediaInfo();
+        if (serialization == null)
+            return null;
+        serialization.journalSequence = journalSequence;
+        serialization = serialization.copy();
+        serialization.headModificationCount = headModificationCount;
+        return serialization;
     }
 
 
-    /**Compares a yet-to-serialize DataSerializer object
-    *with an already serialized one
-    *for content equality.
-    *@param s
-    *the object passed for comparison
-    *Returns true if the objects contain equal elements
+    /**Gets a number that changes whenever the media info, playlist contents excluded, changes.
+    *Lists and maps contribute their identities and modification counts,
+    *and playlists their identities, as their contents are tracked by their own modification counts.
+    *@param journalSequence
+    *the journal sequence to be captured alongside the info
+    *@return the modification count
+    */
+    private long headModificationCount(long journalSequence) {
+        long count = 0xcbf29ce484222325L;
+        for (Object object: new Object[] {playListEntry, recentPlayList, mostRecentPlayList, playingPlayList, mostPlayedPlayList, defaultPlayingPlayList, favouritePlayList, durationTime, defaultDurationTime, timesPlayed, mediaDurationMap, createdPlayListMap, playListContents})
+            count = mix(count, System.identityHashCode(object));
+        long[] values = {(isMarked)? 1: 0, filePosition, journalSequence, FileSortParameter.getSortParameter().ordinal(), java.util.Objects.hashCode(videoFileFolder), java.util.Objects.hashCode(audioFileFolder), java.util.Objects.hashCode(filesFileFolder), durationTime.modificationCount(), defaultDurationTime.modificationCount(), timesPlayed.modificationCount(), mediaDurationMap.modificationCount(), createdPlayListMap.modificationCount(), playListContents.modificationCount()};
+        for (long value: values)
+            count = mix(count, value);
+        return count;
+    }
+
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
+
+
+    //Ascertains if every playlist of the media info is unmodified since it was last serialized
+    private boolean arePlayListsWritten() {
+        for (PlayList list: new PlayList[] {playListEntry, recentPlayList, mostRecentPlayList, playingPlayList, mostPlayedPlayList, defaultPlayingPlayList, favouritePlayList})
+            if (!list.isWritten())
+                return false;
+        for (Trio<String, PlayList, String> trio: createdPlayListMap.values())
+            if (!trio.getValue().isWritten())
+                return false;
+        for (Trio<PlayList, FileFilter, FileSortParameter> trio: playListContents.values())
+            if (!trio.getKey().isWritten())
+                return false;
+        return true;
+    }
+
+
+    /**Serializes captured media info.
+    *@param serialization
+    *the captured info
+    *@return true if the info was serialized
     *and false otherwise
     */
-    private boolean ofEqualSerializableContent(DataSerializer s) {
-        try {
-            return GPlayer.deserializeMediaInfo(SERIALIZATION_PATH).equals(s);
-        }
-        catch (Exception ex) {
-            return false;
+    private boolean writeMediaInfo(DataSerializer serialization) {
+        logger.info("Preparing to sync media info");
+        String fileName = "file", tempFileName = "tempfile";
+        String file = (!preferences.getUserPreferences().get("serializedFile", "").equals(fileName))? SERIALIZATION_PATH: String.join("/", GPlayer.RESOURCE_PATH, tempFileName);
+        File serializedFile = GPlayer.serializeMediaInfo(file, serialization);
+        if (serializedFile != null) {
+            preferences.getUserPreferences().put("serializedFile", (file == SERIALIZATION_PATH)? fileName: tempFileName);
+            if (file != SERIALIZATION_PATH) {
+                File oldFile = new File(SERIALIZATION_PATH);
+                boolean rename = (oldFile.exists())? oldFile.delete(): true;
+                if (rename && serializedFile.renameTo(oldFile))
+                    preferences.getUserPreferences().put("serializedFile", fileName);
+            }
+            writtenHeadModificationCount = serialization.headModificationCount;
+            //The snapshot now holds every journaled change up to its journal sequence
+            mediaJournal.checkpoint(serialization.journalSequence);
         }
+        return serializedFile != null;
     }
 
 
@@ -5333,8 +6129,10 @@ public class FileMedia extends BorderPane {
     *or 0 if the file cannot be found
     */
     public int getPlayFrequency(File file) {
-        int index = mostPlayedPlayList.indexOf(file);
-        return (index == -1)? 0: timesPlayed.get(index);
+        int playCount = libraryStore.playCount(file);
+        if (playCount != -1)
+            return playCount;
+        return playCountRanking.count(file);
     }
 
 
@@ -5345,14 +6143,14 @@ public class FileMedia extends BorderPane {
     private void dismissNotification(javafx.scene.control.Dialog dialog) {
         wasPaused = pauseMedia();
         boolean waitFurther = !stage.isFocused() && !isDialogShowing;
-        long waitTime = Utility.convertTimeToMillis(GPlayerSettings.viewPrefs().get("notificationTime", Utility.formatTime(5, 2)));
+        long waitTime = Utility.convertTimeToMillis(GPlayerSettings.settings().notificationTime());
         waitTime = (waitFurther)? Math.max(waitTime, Utility.convertTimeToMillis(Utility.formatTime(30, 2))): waitTime;
         final Timeline timeline = new Timeline();
         timeline.getKeyFrames().add(new KeyFrame(Duration.millis(waitTime), event -> {
             //If the display time has been exhausted
             //and the dialog hasn't been dismissed
             if (dialog.isShowing()) {
-                if (GPlayerSettings.viewPrefs().getBoolean("executeNotificationTask", true)) {
+                if (GPlayerSettings.settings().executeNotificationTask()) {
                     ObservableList<ButtonType> buttonTypes = dialog.getDialogPane().getButtonTypes();
                     Node[] nodes = buttonTypes.stream().map((buttonType) -> dialog.getDialogPane().lookupButton(buttonType)).toArray(Node[]::new);
                     ((Button) getFocusedNode(nodes)).fire();
@@ -5432,9 +6230,9 @@ public class FileMedia extends BorderPane {
     *the time after which the application would be exited
     */
     public void quitApplicationIn(long quitTime) {
+        if (quitApplicationThread != null && quitApplicationThread.isAlive())
+            quitApplicationThread.interrupt();
         if (quitTime > 0) {
-            if (quitApplicationThread != null && quitApplicationThread.isAlive())
-                quitApplicationThread.interrupt();
             quitApplicationThread = new Thread(() -> {
                 try {
                     Thread.sleep(quitTime);
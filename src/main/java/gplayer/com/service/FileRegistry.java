@@ -0,0 +1,139 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**A process-wide table assigning each file path a compact int id,
+*so that playlists may hold ids rather than File objects,
+*and every list holding a path shares a single File object for it.
+*Paths are told apart as File.equals tells them apart.
+*Ids are never reassigned, so remain valid for as long as the process runs.
+*The null file has the id -1.
+*@author Ganiyu Emilandu
+*/
+
+final class FileRegistry {
+    private static volatile File[] files = new File[1024];  //Maps an id to its file
+    private static int[] table = new int[2048];  //Open-addressed hash table of ids, offset by 1, so that 0 marks an empty slot
+    private static int count;  //The number of registered files
+
+    private FileRegistry() {}
+
+    /**Gets the id of a file, registering the file if not already registered.
+    *@param file
+    *the file
+    *@return the id of the file
+    */
+    static synchronized int intern(File file) {
+        if (file == null)
+            return -1;
+        int mask = table.length - 1;
+        for (int slot = spread(file.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id == -1) {
+                id = count;
+                if (id == files.length) {
+                    File[] array = Arrays.copyOf(files, id * 2);
+                    array[id] = file;
+                    files = array;
+                }
+                else {
+                    files[id] = file;
+                }
+                table[slot] = id + 1;
+                if (++count * 2 > table.length)
+                    rehash();
+                return id;
+            }
+            if (files[id].equals(file))
+                return id;
+        }
+    }
+
+    /**Gets the id of a file, without registering it.
+    *@param o
+    *the file
+    *@return the id of the file, or -1 if o isn't a registered file
+    */
+    static synchronized int find(Object o) {
+        if (!(o instanceof File))
+            return -1;
+        int mask = table.length - 1;
+        for (int slot = spread(o.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id == -1 || files[id].equals(o))
+                return id;
+        }
+    }
+
+    /**Gets the file registered under an id.
+    *@param id
+    *the id
+    *@return the file, or null if id is -1
+    */
+    static File file(int id) {
+        if (id < 0)
+            return null;
+        File[] array = files;
+        File file = (id < array.length)? array[id]: null;
+        if (file == null) {
+            //The id was registered on another thread, and its file isn't yet visible to this one
+            synchronized (FileRegistry.class) {
+                file = files[id];
+            }
+        }
+        return file;
+    }
+
+    /**Gets the File object shared by all lists for the path of a file.
+    *@param file
+    *the file
+    *@return the shared object, or null if file is null
+    */
+    static File canonical(File file) {
+        return file(intern(file));
+    }
+
+    /**Gets the number of registered files.
+    *@return the number of registered files
+    */
+    static synchronized int size() {
+        return count;
+    }
+
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+
+    private static void rehash() {
+        int[] array = new int[table.length * 2];
+        int mask = array.length - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = spread(files[id].hashCode()) & mask;
+            while (array[slot] != 0)
+                slot = (slot + 1) & mask;
+            array[slot] = id + 1;
+        }
+        table = array;
+    }
+}
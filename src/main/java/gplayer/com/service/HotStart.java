@@ -0,0 +1,144 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import gplayer.com.exec.GPlayer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+/**A tiny record of the playback state at exit,
+*read at start up ahead of the full media info,
+*so that the last playlist shows, and the last file is prepared,
+*before the media info is deserialized.
+*Only the files around the playing one, as many as fill a view, are recorded.
+*@author Ganiyu Emilandu
+*/
+
+final class HotStart {
+    private static final int MAGIC = 0x47504853;  //"GPHS"
+    private static final byte VERSION = 1;
+    final int filePosition;  //Position of the playing file in the full playlist
+    final File currentFile;
+    final double mediaStopPosition;  //In milliseconds
+    final int firstIndex;  //Position of the first recorded file in the full playlist
+    final List<File> files;  //The recorded files, null where the playlist held no file
+
+    private HotStart(int filePosition, File currentFile, double mediaStopPosition, int firstIndex, List<File> files) {
+        this.filePosition = filePosition;
+        this.currentFile = currentFile;
+        this.mediaStopPosition = mediaStopPosition;
+        this.firstIndex = firstIndex;
+        this.files = files;
+    }
+
+    /**Records the playback state.
+    *@param file
+    *the record file
+    *@param playList
+    *the playing playlist
+    *@param filePosition
+    *the position of the playing file
+    *@param currentFile
+    *the playing file
+    *@param mediaStopPosition
+    *the playback position of the playing file, in milliseconds
+    *@param entries
+    *the number of files to record around the playing one
+    */
+    static void write(File file, List<File> playList, int filePosition, File currentFile, double mediaStopPosition, int entries) {
+        if (currentFile == null || playList.isEmpty()) {
+            file.delete();
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        int size = playList.size();
+        filePosition = Math.max(0, Math.min(filePosition, size - 1));
+        //Put the playing file a quarter of the way down the view
+        int firstIndex = Math.max(0, Math.min(filePosition - entries / 4, size - entries));
+        int lastIndex = Math.min(size, firstIndex + entries);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(filePosition);
+            out.writeUTF(currentFile.getPath());
+            out.writeDouble(mediaStopPosition);
+            out.writeInt(firstIndex);
+            List<File> files = playList.subList(firstIndex, lastIndex);
+            out.writeInt(files.size());
+            for (File f: files)
+                out.writeUTF((f == null)? "": f.getPath());
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to write hot-start record", ex);
+            return;
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to replace hot-start record", ex);
+        }
+    }
+
+    /**Reads the recorded playback state.
+    *@param file
+    *the record file
+    *@return the state, or null if none was recorded, or the record is unreadable
+    */
+    static HotStart read(File file) {
+        if (!file.exists())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION)
+                return null;
+            int filePosition = in.readInt();
+            File currentFile = new File(in.readUTF());
+            double mediaStopPosition = in.readDouble();
+            int firstIndex = in.readInt();
+            int size = in.readInt();
+            if (size < 0)
+                return null;
+            //A corrupt size runs into the end of the record, rather than an outsize allocation
+            List<File> files = new ArrayList<>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                String path = in.readUTF();
+                //An empty path holds the slot of a missing file, so that later files keep their positions
+                files.add(path.isEmpty()? null: new File(path));
+            }
+            return new HotStart(filePosition, currentFile, mediaStopPosition, firstIndex, Collections.unmodifiableList(files));
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to read hot-start record", ex);
+            return null;
+        }
+    }
+}
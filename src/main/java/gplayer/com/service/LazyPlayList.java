@@ -0,0 +1,167 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import gplayer.com.exec.GPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**A playlist whose files are read from a section of a serialized media info file
+*the first time its contents are accessed.
+*Its size is known beforehand, so that emptiness checks needn't read it.
+*Until modified, it's written back verbatim by MediaInfoCodec.
+*If its section can't be read, it's written back verbatim regardless,
+*so that a failed read doesn't overwrite the files it failed to read.
+*@author Ganiyu Emilandu
+*/
+
+final class LazyPlayList extends PlayList {
+    private static final long serialVersionUID = 1L;
+    private final int sectionSize;  //The number of files in the section
+    private volatile boolean loaded;
+    private boolean loading;
+    private boolean unreadable;  //True if the section failed to read
+    private List<Runnable> pendingChanges;  //Changes awaiting the read of the section
+
+    /**Creates a new instance of this class.
+    *@param section
+    *the section from which files are to be read
+    *@param size
+    *the number of files in the section
+    */
+    LazyPlayList(MediaInfoCodec.Section section, int size) {
+        sectionSize = size;
+        markWritten(section, 0);
+    }
+
+    /**Ascertains if the files of this list have been read.
+    *@return true if read, and false otherwise
+    */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**Reads the files of this list, if not already read,
+    *then applies the changes awaiting the read.
+    *The section remains the one this list was last written to,
+    *until the list is next written.
+    *If the section fails to read, the list is left empty,
+    *and the section is written back in place of the list from then on.
+    *@throws IOException
+    *if an io error occurs while reading
+    */
+    synchronized void load() throws IOException {
+        if (loaded || loading)
+            return;
+        loading = true;
+        try {
+            MediaInfoCodec.Section section = writtenSection();
+            List<File> files = section.read(sectionSize);
+            super.addAll(size(), files);
+            markWritten(section, modificationCount());
+        }
+        catch (IOException ex) {
+            unreadable = true;
+            throw ex;
+        }
+        finally {
+            loading = false;
+            loaded = true;
+            applyPendingChanges();
+        }
+    }
+
+
+    private void applyPendingChanges() {
+        if (pendingChanges == null)
+            return;
+        List<Runnable> changes = pendingChanges;
+        pendingChanges = null;
+        for (Runnable change: changes)
+            change.run();
+    }
+
+    /**Applies a change to a list once its files are read,
+    *so that changes replayed onto a deserialized list don't read it.
+    *Lists that aren't lazy, or whose files are already read, are changed at once.
+    *Changes are applied in the order they're submitted.
+    *@param list
+    *the list to change
+    *@param change
+    *the change
+    */
+    static <T extends List<?>> void whenLoaded(T list, Consumer<? super T> change) {
+        if (list instanceof LazyPlayList) {
+            LazyPlayList lazyList = (LazyPlayList) list;
+            synchronized (lazyList) {
+                if (!lazyList.loaded) {
+                    if (lazyList.pendingChanges == null)
+                        lazyList.pendingChanges = new ArrayList<>();
+                    lazyList.pendingChanges.add(() -> change.accept(list));
+                    return;
+                }
+            }
+        }
+        change.accept(list);
+    }
+
+
+    @Override
+    synchronized PlayList snapshot() {
+        //Changes awaiting the read aren't in the section, so the section can't stand for the list
+        if (pendingChanges != null)
+            access();
+        return super.snapshot();
+    }
+
+
+    @Override
+    synchronized boolean isWritten() {
+        return unreadable && writtenSection() != null || super.isWritten();
+    }
+
+
+    @Override
+    synchronized int writtenSize() {
+        return (unreadable)? sectionSize: super.writtenSize();
+    }
+
+
+    @Override
+    void access() {
+        if (!loaded) {
+            try {
+                load();
+            }
+            catch (IOException ex) {
+                GPlayer.LOGGER.log(Level.WARNING, "Unable to read playlist section; changes to the playlist won't be saved", ex);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return (loaded || loading)? super.size(): sectionSize;
+    }
+}
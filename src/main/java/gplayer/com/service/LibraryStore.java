@@ -0,0 +1,542 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import gplayer.com.exec.GPlayer;
+import gplayer.com.util.Trio;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+import javafx.util.Duration;
+
+/**An embedded, log-structured store of per-file library info:
+*play count, last played time, resume position, mediamarks, media type, media duration,
+*and membership in user playlists.
+*Every update appends the whole record of a file to a data file;
+*an in-memory directory maps each file id to the offset of its latest record,
+*so that a lookup costs a single positional read,
+*and an update a single append, however large the library grows.
+*The directory holds only two longs per file, the records themselves stay on disk.
+*Superseded records are dropped by compaction, when the store is opened.
+*The store is a secondary index, kept alongside the media info rather than in place of it:
+*the serialized media info, (DataSerializer and the media journal), remains the record of play counts,
+*mediamarks and playlist membership, which FileMedia still holds in heap,
+*and the store is populated from it once, when first created, then updated as the media info changes.
+*It's read for the attributes the media info doesn't carry, or carries only by scanning,
+*(the play counts shown in file info, and the sort attributes of AttributeColumns),
+*so heap usage still grows with the library.
+*@author Ganiyu Emilandu
+*/
+
+final class LibraryStore {
+    static final byte UNKNOWN_MEDIA = 0, AUDIO_MEDIA = 1, VIDEO_MEDIA = 2;
+    private static final byte PUT = 1, DELETE = 2;
+    private static final int HEADER_SIZE = 4, TRAILER_SIZE = 4;  //Record length and checksum
+    private static final long COMPACTION_SIZE = 1L << 20;  //Data file length, in bytes, beyond which superseded records are worth dropping
+    private final Path path;  //The data file
+    private FileChannel channel;
+    private Directory directory = new Directory();
+    private long length;  //Current length of the data file
+    private long liveLength;  //Bytes taken by the latest records of files
+
+    /**The library info of a file.*/
+    static final class Entry {
+        final String path;
+        int playCount;
+        long lastPlayed;  //In milliseconds since the epoch, or 0 if never played
+        double resumePosition = Double.NaN;  //In milliseconds, or NaN if none is to be recalled
+        byte mediaType = UNKNOWN_MEDIA;
+        double duration = Double.NaN;  //Media duration, in milliseconds, or NaN if not yet learnt
+        final Map<String, Double> markers = new LinkedHashMap<>();  //Mediamark names and positions, in milliseconds
+        final Set<String> playLists = new LinkedHashSet<>();  //Names of the user playlists containing the file
+
+        Entry(String path) {
+            this.path = path;
+        }
+
+        /**Ascertains if this entry holds no info worth keeping.*/
+        boolean isEmpty() {
+            return playCount == 0 && lastPlayed == 0 && Double.isNaN(resumePosition) && markers.isEmpty() && playLists.isEmpty() && Double.isNaN(duration);
+        }
+    }
+
+    /**Creates a new instance of this class.
+    *@param path
+    *the path to the data file
+    */
+    LibraryStore(String path) {
+        this.path = Paths.get(path);
+    }
+
+    /**Opens the store, rebuilding its directory from the data file.
+    *A torn record, left at the end of the file by an abrupt exit, is discarded.
+    *@return true if the store holds any record,
+    *and false if it's newly created, or couldn't be opened,
+    *in which case every operation is a no-op
+    */
+    synchronized boolean open() {
+        if (channel != null)
+            return directory.size() > 0;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            length = scan();
+            channel.truncate(length);
+            if (length > COMPACTION_SIZE && liveLength < length / 2)
+                compact();
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to open library store", ex);
+            close();
+        }
+        return directory.size() > 0;
+    }
+
+    /**Ascertains if the store is open.
+    *@return true if open, and false otherwise
+    */
+    synchronized boolean isOpen() {
+        return channel != null;
+    }
+
+    /**Gets the number of files held in the store.
+    *@return the number of files
+    */
+    synchronized int size() {
+        return directory.size();
+    }
+
+    /**Gets the library info of a file.
+    *@param file
+    *the file whose info is sought
+    *@return the info, or null if the store holds none for the file
+    */
+    synchronized Entry get(File file) {
+        if (channel == null || file == null)
+            return null;
+        long offset = directory.get(fileId(file.getPath()));
+        if (offset == -1)
+            return null;
+        try {
+            Entry entry = readEntry(offset);
+            //Guard against the unlikely collision of file ids
+            return (entry != null && entry.path.equals(file.getPath()))? entry: null;
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to read library store", ex);
+            return null;
+        }
+    }
+
+    /**Gets the library info of several files at once,
+    *under a single hold of the store, so that none is appended to midway.
+    *@param files
+    *the files whose info is sought
+    *@return the info of each file, by position, null where the store holds none
+    */
+    synchronized Entry[] get(File[] files) {
+        Entry[] entries = new Entry[files.length];
+        for (int i = 0; i < files.length; i++)
+            entries[i] = get(files[i]);
+        return entries;
+    }
+
+    /**Gets the number of times a file was played.
+    *@param file
+    *the file whose play count is sought
+    *@return the play count, or -1 if the store isn't open
+    */
+    synchronized int playCount(File file) {
+        if (channel == null)
+            return -1;
+        Entry entry = get(file);
+        return (entry == null)? 0: entry.playCount;
+    }
+
+    /**Updates the library info of a file,
+    *dropping it altogether once it holds nothing worth keeping.
+    *@param file
+    *the file whose info is to be updated
+    *@param updater
+    *applies the update to the current info of the file
+    */
+    synchronized void update(File file, Consumer<Entry> updater) {
+        if (channel == null || file == null)
+            return;
+        Entry entry = get(file);
+        boolean existing = entry != null;
+        if (!existing)
+            entry = new Entry(file.getPath());
+        updater.accept(entry);
+        try {
+            if (!entry.isEmpty())
+                append(entry);
+            else if (existing)
+                delete(entry.path);
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to update library store", ex);
+        }
+    }
+
+    /**Populates the store with the library info held by a deserialized snapshot,
+    *when the store is first created, as by the first run of a version of this app which keeps it.
+    *@param serialization
+    *the snapshot to import
+    *@param isAudio
+    *tells audio files from video files
+    */
+    synchronized void importFrom(DataSerializer serialization, Predicate<File> isAudio) {
+        if (channel == null || serialization == null)
+            return;
+        Map<String, Entry> entries = new HashMap<>();
+        java.util.function.Function<File, Entry> entry = ((file) -> entries.computeIfAbsent(file.getPath(), Entry::new));
+        List<File> mostPlayed = serialization.mostPlayedPlayList;
+        for (int i = 0; i < mostPlayed.size() && i < serialization.timesPlayed.size(); i++)
+            if (mostPlayed.get(i) != null)
+                entry.apply(mostPlayed.get(i)).playCount = serialization.timesPlayed.get(i);
+        //recentPlayList holds the most recently played file first; only the order is known
+        long time = System.currentTimeMillis();
+        for (File file: serialization.recentPlayList)
+            if (file != null)
+                entry.apply(file).lastPlayed = time--;
+        for (Map.Entry<String, Trio<File, Duration, Boolean>> marker: serialization.mediaDurationMap.entrySet()) {
+            File file = marker.getValue().getKey();
+            Duration duration = marker.getValue().getValue();
+            if (file == null || duration == null)
+                continue;
+            String key = marker.getKey();
+            if (key.startsWith(" "))
+                entry.apply(file).resumePosition = duration.toMillis();
+            else {
+                String prefix = file.getPath() + File.separator;
+                entry.apply(file).markers.put((key.startsWith(prefix))? key.substring(prefix.length()): key, duration.toMillis());
+            }
+        }
+        for (File file: serialization.favouritePlayList)
+            if (file != null)
+                entry.apply(file).playLists.add("favouritePlayList");
+        for (Map.Entry<String, Trio<String, PlayList, String>> playList: serialization.createdPlayListMap.entrySet())
+            for (File file: playList.getValue().getValue())
+                if (file != null)
+                    entry.apply(file).playLists.add("createdPlayList/" + playList.getKey());
+        try {
+            for (Entry e: entries.values()) {
+                e.mediaType = (isAudio.test(new File(e.path)))? AUDIO_MEDIA: VIDEO_MEDIA;
+                if (!e.isEmpty())
+                    append(e);
+            }
+            channel.force(false);
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to import media info into library store", ex);
+        }
+    }
+
+    /**Closes the store, forcing its updates to the storage device.*/
+    synchronized void close() {
+        if (channel == null)
+            return;
+        try {
+            channel.force(false);
+            channel.close();
+        }
+        catch (IOException ex) {}
+        channel = null;
+        directory = new Directory();
+    }
+
+    /**Computes the 64-bit FNV-1a hash of a path,
+    *by which a file is keyed in the store.
+    *@param path
+    *the path of the file
+    *@return the file id
+    */
+    static long fileId(String path) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < path.length(); i++)
+            hash = (hash ^ path.charAt(i)) * 0x100000001b3L;
+        //0 marks a free slot in the directory
+        return (hash == 0)? 1: hash;
+    }
+
+
+    private void append(Entry entry) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(PUT);
+        out.writeUTF(entry.path);
+        out.writeInt(entry.playCount);
+        out.writeLong(entry.lastPlayed);
+        out.writeDouble(entry.resumePosition);
+        out.writeByte(entry.mediaType);
+        out.writeShort(entry.markers.size());
+        for (Map.Entry<String, Double> marker: entry.markers.entrySet()) {
+            out.writeUTF(marker.getKey());
+            out.writeDouble(marker.getValue());
+        }
+        out.writeShort(entry.playLists.size());
+        for (String playList: entry.playLists)
+            out.writeUTF(playList);
+        //Appended last, so that records written before it was added remain readable
+        out.writeDouble(entry.duration);
+        long offset = writeRecord(buffer.toByteArray());
+        long previous = directory.put(fileId(entry.path), offset);
+        if (previous != -1)
+            liveLength -= recordLength(previous);
+        liveLength += length - offset;
+    }
+
+
+    private void delete(String path) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(DELETE);
+        out.writeUTF(path);
+        writeRecord(buffer.toByteArray());
+        long previous = directory.remove(fileId(path));
+        if (previous != -1)
+            liveLength -= recordLength(previous);
+    }
+
+
+    /**Appends a record to the data file.
+    *@return the offset of the record
+    */
+    private long writeRecord(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length + TRAILER_SIZE);
+        buffer.putInt(payload.length).put(payload).putInt((int) crc.getValue());
+        buffer.flip();
+        long offset = length;
+        while (buffer.hasRemaining())
+            length += channel.write(buffer, length);
+        return offset;
+    }
+
+
+    /**Reads the payload of the record at an offset.
+    *@return the payload, or null if the record is torn or corrupt
+    */
+    private byte[] readRecord(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(header, offset))
+            return null;
+        int size = header.getInt(0);
+        if (size <= 0 || offset + HEADER_SIZE + size + TRAILER_SIZE > channel.size())
+            return null;
+        ByteBuffer record = ByteBuffer.allocate(size + TRAILER_SIZE);
+        if (!readFully(record, offset + HEADER_SIZE))
+            return null;
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, size);
+        if (record.getInt(size) != (int) crc.getValue())
+            return null;
+        return java.util.Arrays.copyOf(record.array(), size);
+    }
+
+
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, position + buffer.position()) == -1)
+                return false;
+        return true;
+    }
+
+
+    private long recordLength(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        return (readFully(header, offset))? HEADER_SIZE + header.getInt(0) + TRAILER_SIZE: 0;
+    }
+
+
+    private Entry readEntry(long offset) throws IOException {
+        byte[] payload = readRecord(offset);
+        if (payload == null)
+            return null;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (in.readByte() != PUT)
+            return null;
+        Entry entry = new Entry(in.readUTF());
+        entry.playCount = in.readInt();
+        entry.lastPlayed = in.readLong();
+        entry.resumePosition = in.readDouble();
+        entry.mediaType = in.readByte();
+        for (int i = in.readShort(); i > 0; i--)
+            entry.markers.put(in.readUTF(), in.readDouble());
+        for (int i = in.readShort(); i > 0; i--)
+            entry.playLists.add(in.readUTF());
+        if (in.available() >= Double.BYTES)
+            entry.duration = in.readDouble();
+        return entry;
+    }
+
+
+    /**Rebuilds the directory from the data file.
+    *@return the length of the intact part of the file
+    */
+    private long scan() throws IOException {
+        directory = new Directory();
+        liveLength = 0;
+        long offset = 0, size = channel.size();
+        while (offset < size) {
+            byte[] payload = readRecord(offset);
+            if (payload == null)
+                break;
+            long recordLength = HEADER_SIZE + payload.length + TRAILER_SIZE;
+            String path = recordPath(payload);
+            long previous = (payload[0] == PUT)? directory.put(fileId(path), offset): directory.remove(fileId(path));
+            if (previous != -1)
+                liveLength -= recordLength(previous);
+            if (payload[0] == PUT)
+                liveLength += recordLength;
+            offset += recordLength;
+        }
+        return offset;
+    }
+
+
+    private static String recordPath(byte[] payload) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1)).readUTF();
+    }
+
+
+    /**Rewrites the data file with only the latest record of every file.*/
+    private void compact() throws IOException {
+        Path tempPath = Paths.get(path.toString() + ".tmp");
+        Directory compacted = new Directory();
+        long compactedLength = 0;
+        try (FileChannel out = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < directory.keys.length; i++) {
+                if (directory.keys[i] == 0)
+                    continue;
+                long offset = directory.values[i];
+                long recordLength = recordLength(offset);
+                for (long count = 0; count < recordLength;)
+                    count += channel.transferTo(offset + count, recordLength - count, out);
+                compacted.put(directory.keys[i], compactedLength);
+                compactedLength += recordLength;
+            }
+            out.force(false);
+        }
+        channel.close();
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        directory = compacted;
+        length = liveLength = compactedLength;
+    }
+
+
+    /**An open-addressing map of file ids to record offsets,
+    *held in two primitive arrays.
+    */
+    private static final class Directory {
+        private long[] keys = new long[1024], values = new long[1024];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        /**@return the offset mapped to the id, or -1 if none*/
+        long get(long key) {
+            int i = slot(key);
+            return (keys[i] == key)? values[i]: -1;
+        }
+
+        /**@return the offset previously mapped to the id, or -1 if none*/
+        long put(long key, long value) {
+            int i = slot(key);
+            if (keys[i] == key) {
+                long previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size > keys.length * 3 / 4)
+                resize();
+            return -1;
+        }
+
+        /**@return the offset previously mapped to the id, or -1 if none*/
+        long remove(long key) {
+            int i = slot(key);
+            if (keys[i] != key)
+                return -1;
+            long previous = values[i];
+            keys[i] = 0;
+            size--;
+            //Shift back the entries of the probe sequence, so that none is cut off by the freed slot
+            for (int j = (i + 1) & (keys.length - 1); keys[j] != 0; j = (j + 1) & (keys.length - 1)) {
+                int home = hash(keys[j]) & (keys.length - 1);
+                if (((j - home) & (keys.length - 1)) >= ((j - i) & (keys.length - 1))) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    keys[j] = 0;
+                    i = j;
+                }
+            }
+            return previous;
+        }
+
+        private int slot(long key) {
+            int i = hash(key) & (keys.length - 1);
+            while (keys[i] != 0 && keys[i] != key)
+                i = (i + 1) & (keys.length - 1);
+            return i;
+        }
+
+        private static int hash(long key) {
+            return (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys, oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++)
+                if (oldKeys[i] != 0)
+                    put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
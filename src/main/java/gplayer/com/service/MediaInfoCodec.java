@@ -0,0 +1,695 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import gplayer.com.service.enumconst.FileFilter;
+import gplayer.com.service.enumconst.FileSortParameter;
+import gplayer.com.util.Trio;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.util.Duration;
+
+/**Encodes DataSerializer info in a compact, versioned binary format.
+*Every playlist is written once, as an independently addressable section,
+*however many DataSerializer fields reference it;
+*lists shared by several fields remain shared after decoding.
+*Paths within a section are front-coded against their predecessor,
+*and durations are written as primitive millisecond values.
+*A head section, located through the file trailer, holds the remaining info
+*and an offset table of the playlist sections, with the number of files in each.
+*On decoding, only the playlists referenced as playing are read;
+*the others are LazyPlayList objects, read on first access.
+*Every PlayList remembers the section it was last written to,
+*so that a list unmodified since is copied verbatim, rather than re-encoded.
+*Files written in the first, dictionary-based, version remain readable.
+*@author Ganiyu Emilandu
+*/
+
+public final class MediaInfoCodec {
+    private static final int MAGIC = 0x47504C53;  //"GPLS"
+    private static final byte DICTIONARY_VERSION = 1, SECTIONED_VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int HEADER_SIZE = 5, TRAILER_SIZE = 8;
+
+    private MediaInfoCodec() {}
+
+    /**Ascertains if a file was written by this codec.
+    *@param path
+    *the path to the file
+    *@return true if the file begins with the codec's magic number,
+    *and false otherwise, as with files written by an ObjectOutputStream
+    */
+    public static boolean isEncoded(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1);
+            return !buffer.hasRemaining() && buffer.getInt(0) == MAGIC;
+        }
+        catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**Writes DataSerializer info to a file.
+    *The info is written to a temporary file, which then replaces the file,
+    *since playlists not yet read, as well as written ones, copy their sections from the file they were read from,
+    *which may be the very file written to.
+    *@param path
+    *the file to write to
+    *@param serialization
+    *the info to be written
+    *@throws IOException
+    *if an io error occurs while writing
+    */
+    public static void encode(Path path, DataSerializer serialization) throws IOException {
+        //Every distinct list, by identity, makes a section
+        Map<List<File>, Integer> lists = new IdentityHashMap<>();
+        List<List<File>> listTable = new ArrayList<>();
+        List<List<File>> playLists = playLists(serialization);
+        for (List<File> list: playLists)
+            register(list, lists, listTable);
+        for (Trio<String, PlayList, String> trio: serialization.createdPlayListMap.values())
+            register(trio.getValue(), lists, listTable);
+        for (Trio<PlayList, FileFilter, FileSortParameter> trio: serialization.playListContents.values())
+            register(trio.getKey(), lists, listTable);
+
+        long[] offsets = new long[listTable.size()], lengths = new long[listTable.size()];
+        long[] modificationCounts = new long[listTable.size()];
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        boolean replaced = false;
+        try {
+            try (Output out = new Output(FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+                out.writeInt(MAGIC);
+                out.writeByte(SECTIONED_VERSION);
+                int[] sizes = new int[listTable.size()];
+                for (int i = 0; i < lengths.length; i++) {
+                    List<File> list = listTable.get(i);
+                    offsets[i] = out.position();
+                    if (list instanceof PlayList) {
+                        PlayList playList = (PlayList) list;
+                        modificationCounts[i] = (playList.origin() == null)? playList.modificationCount(): playList.originModificationCount();
+                        sizes[i] = playList.transferTo(out);
+                    }
+                    else
+                        sizes[i] = -1;
+                    if (sizes[i] == -1) {
+                        //Snapshot the list, so that its size and its contents agree
+                        File[] files = list.toArray(new File[0]);
+                        String previous = "";
+                        for (File file: files)
+                            previous = writePath(out, previous, file);
+                        sizes[i] = files.length;
+                    }
+                    lengths[i] = out.position() - offsets[i];
+                }
+                long head = out.position();
+                out.writeVarint(listTable.size());
+                for (int i = 0; i < lengths.length; i++) {
+                    out.writeVarint(sizes[i]);
+                    out.writeLong(lengths[i]);
+                }
+                out.writeByte((serialization.isMarked)? 1: 0);
+                out.writeVarint(zigzag(serialization.filePosition));
+                out.writeLong(serialization.journalSequence);
+                for (List<File> list: playLists)
+                    out.writeVarint(lists.get(list));
+                out.writeVarint(serialization.durationTime.size());
+                for (Duration duration: serialization.durationTime)
+                    out.writeDouble((duration == null)? Double.NaN: duration.toMillis());
+                out.writeVarint(serialization.timesPlayed.size());
+                for (Integer times: serialization.timesPlayed)
+                    out.writeVarint(zigzag((times == null)? 0: times));
+                out.writeVarint(serialization.mediaDurationMap.size());
+                for (Map.Entry<String, Trio<File, Duration, Boolean>> entry: serialization.mediaDurationMap.entrySet()) {
+                    Trio<File, Duration, Boolean> trio = entry.getValue();
+                    out.writeString(entry.getKey());
+                    out.writeString(path(trio.getKey()));
+                    out.writeDouble((trio.getValue() == null)? Double.NaN: trio.getValue().toMillis());
+                    out.writeByte((trio.getExtension() == null)? -1: (trio.getExtension())? 1: 0);
+                }
+                out.writeVarint(serialization.createdPlayListMap.size());
+                for (Map.Entry<String, Trio<String, PlayList, String>> entry: serialization.createdPlayListMap.entrySet()) {
+                    Trio<String, PlayList, String> trio = entry.getValue();
+                    out.writeString(entry.getKey());
+                    out.writeString(trio.getKey());
+                    out.writeVarint(lists.get(trio.getValue()));
+                    out.writeString(trio.getExtension());
+                }
+                out.writeVarint(serialization.playListContents.size());
+                for (Map.Entry<String, Trio<PlayList, FileFilter, FileSortParameter>> entry: serialization.playListContents.entrySet()) {
+                    Trio<PlayList, FileFilter, FileSortParameter> trio = entry.getValue();
+                    out.writeString(entry.getKey());
+                    out.writeVarint(lists.get(trio.getKey()));
+                    out.writeString((trio.getValue() == null)? null: trio.getValue().name());
+                    out.writeString((trio.getExtension() == null)? null: trio.getExtension().name());
+                }
+                File[] files = {serialization.videoFileFolder, serialization.audioFileFolder, serialization.filesFileFolder, serialization.currentFile};
+                for (File file: files)
+                    out.writeString(path(file));
+                out.writeString(serialization.PARAMETER.name());
+                out.writeLong(head);
+            }
+            finally {
+                for (List<File> list: listTable)
+                    if (list instanceof PlayList)
+                        ((PlayList) list).discard();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            replaced = true;
+        }
+        finally {
+            if (!replaced)
+                Files.deleteIfExists(temp);
+        }
+        //Let every written list remember its section, so it's copied verbatim until modified
+        Source source = new Source(FileChannel.open(path, StandardOpenOption.READ));
+        for (int i = 0; i < offsets.length; i++) {
+            List<File> list = listTable.get(i);
+            if (list instanceof PlayList) {
+                PlayList playList = (((PlayList) list).origin() == null)? (PlayList) list: ((PlayList) list).origin();
+                playList.markWritten(source.section(offsets[i], lengths[i]), modificationCounts[i]);
+            }
+        }
+        source.release();
+    }
+
+    /**Reads DataSerializer info from a file written by encode().
+    *Playlists other than the playing ones are read on first access.
+    *@param path
+    *the file to read from
+    *@throws IOException
+    *if an io error occurs while reading, or the file isn't in a known format
+    *@return the decoded info
+    */
+    public static DataSerializer decode(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        Source source = null;
+        try {
+            Input in = new Input(channel, 0);
+            if (in.readInt() != MAGIC)
+                throw new IOException("Unrecognized media info format");
+            byte version = in.readByte();
+            if (version == DICTIONARY_VERSION)
+                return decodeDictionary(in);
+            if (version != SECTIONED_VERSION)
+                throw new IOException("Unsupported media info version: " + version);
+            source = new Source(channel);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            long trailerPosition = channel.size() - TRAILER_SIZE;
+            while (trailer.hasRemaining())
+                if (channel.read(trailer, trailerPosition + trailer.position()) == -1)
+                    throw new java.io.EOFException();
+            in = new Input(channel, trailer.getLong(0));
+            PlayList[] listTable = newListTable(in.readVarint());
+            LazyPlayList[] lazyLists = new LazyPlayList[listTable.length];
+            long offset = HEADER_SIZE;
+            for (int i = 0; i < listTable.length; i++) {
+                int size = in.readVarint();
+                long length = in.readLong();
+                listTable[i] = lazyLists[i] = new LazyPlayList(source.section(offset, length), size);
+                offset += length;
+            }
+            final Source src = source;
+            DataSerializer serialization = decodeHead(in, listTable, (input) -> src.intern(input.readString()));
+            //Read the playing lists right away
+            ((LazyPlayList) serialization.playedPlayList).load();
+            ((LazyPlayList) serialization.defaultPlayingPlayList).load();
+            //The channel stays open only while some list still holds a section of it
+            source.release();
+            return serialization;
+        }
+        catch (IOException | RuntimeException ex) {
+            channel.close();
+            if (ex instanceof IllegalArgumentException || ex instanceof IndexOutOfBoundsException)
+                throw new IOException("Corrupt media info", ex);
+            throw ex;
+        }
+        finally {
+            if (source == null && channel.isOpen())
+                channel.close();
+        }
+    }
+
+
+    /**Reads info written in the first, dictionary-based, version of this codec.*/
+    private static DataSerializer decodeDictionary(Input in) throws IOException {
+        File[] dictionary = new File[in.readVarint()];
+        String previous = "";
+        for (int i = 0; i < dictionary.length; i++) {
+            int prefix = in.readVarint();
+            previous = previous.substring(0, prefix).concat(in.readString());
+            dictionary[i] = FileRegistry.canonical(new File(previous));
+        }
+        PlayList[] listTable = newListTable(in.readVarint());
+        for (int i = 0; i < listTable.length; i++) {
+            PlayList list = new PlayList();
+            for (int j = in.readVarint(); j > 0; j--)
+                list.add(file(in.readVarint(), dictionary));
+            listTable[i] = list;
+        }
+        return decodeHead(in, listTable, (input) -> file(input.readVarint(), dictionary));
+    }
+
+
+    private interface FileReader {
+        File read(Input in) throws IOException;
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static PlayList[] newListTable(int size) {
+        return new PlayList[size];
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static DataSerializer decodeHead(Input in, PlayList[] listTable, FileReader files) throws IOException {
+        boolean isMarked = in.readByte() == 1;
+        int filePosition = unzigzag(in.readVarint());
+        long journalSequence = in.readLong();
+        PlayList playLists[] = new PlayList[7];
+        for (int i = 0; i < playLists.length; i++)
+            playLists[i] = listTable[in.readVarint()];
+        int size = in.readVarint();
+        ArrayList<Duration> durationTime = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            durationTime.add(duration(in.readDouble()));
+        size = in.readVarint();
+        ArrayList<Integer> timesPlayed = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            timesPlayed.add(unzigzag(in.readVarint()));
+        LinkedHashMap<String, Trio<File, Duration, Boolean>> mediaDurationMap = new LinkedHashMap<>();
+        for (int i = in.readVarint(); i > 0; i--) {
+            String key = in.readString();
+            File file = files.read(in);
+            Duration duration = duration(in.readDouble());
+            byte flag = in.readByte();
+            mediaDurationMap.put(key, new Trio<File, Duration, Boolean>(FileRegistry.canonical(file), duration, (flag == -1)? null: flag == 1));
+        }
+        LinkedHashMap<String, Trio<String, PlayList, String>> createdPlayListMap = new LinkedHashMap<>();
+        for (int i = in.readVarint(); i > 0; i--) {
+            String key = in.readString();
+            String name = in.readString();
+            PlayList list = listTable[in.readVarint()];
+            createdPlayListMap.put(key, new Trio<String, PlayList, String>(name, list, in.readString()));
+        }
+        Map<String, Trio<PlayList, FileFilter, FileSortParameter>> playListContents = new HashMap<>();
+        for (int i = in.readVarint(); i > 0; i--) {
+            String key = in.readString();
+            PlayList list = listTable[in.readVarint()];
+            String filter = in.readString(), parameter = in.readString();
+            playListContents.put(key, new Trio<PlayList, FileFilter, FileSortParameter>(list, (filter == null)? null: FileFilter.valueOf(filter), (parameter == null)? null: FileSortParameter.valueOf(parameter)));
+        }
+        File videoFileFolder = files.read(in), audioFileFolder = files.read(in), filesFileFolder = files.read(in), currentFile = files.read(in);
+        FileSortParameter PARAMETER = FileSortParameter.valueOf(in.readString());
+        DataSerializer serialization = new DataSerializer(isMarked, filePosition, playLists[0], playLists[1], playLists[2], playLists[3], playLists[4], playLists[5], playLists[6], durationTime, timesPlayed, mediaDurationMap, createdPlayListMap, playListContents, videoFileFolder, audioFileFolder, filesFileFolder, PARAMETER);
+        serialization.currentFile = currentFile;
+        serialization.journalSequence = journalSequence;
+        return serialization;
+    }
+
+
+    /**Gets the playlist fields of a DataSerializer object, in encoding order.*/
+    private static List<List<File>> playLists(DataSerializer s) {
+        return Arrays.<List<File>>asList(s.playListEntry, s.recentPlayList, s.mostRecentPlayList, s.playedPlayList, s.mostPlayedPlayList, s.defaultPlayingPlayList, s.favouritePlayList);
+    }
+
+
+    private static void register(List<File> list, Map<List<File>, Integer> lists, List<List<File>> listTable) {
+        if (lists.containsKey(list))
+            return;
+        lists.put(list, listTable.size());
+        listTable.add(list);
+    }
+
+
+    /**Writes a path front-coded against the previous one.
+    *@return the path written, to be passed as previous on the next call
+    */
+    private static String writePath(Output out, String previous, File file) throws IOException {
+        if (file == null) {
+            out.writeVarint(0);
+            out.writeString(null);
+            return previous;
+        }
+        String path = file.getPath();
+        int prefix = commonPrefix(previous, path);
+        out.writeVarint(prefix);
+        out.writeString(path.substring(prefix));
+        return path;
+    }
+
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length()), i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i))
+            i++;
+        //Don't split a surrogate pair
+        return (i > 0 && Character.isHighSurrogate(a.charAt(i-1)))? i-1: i;
+    }
+
+
+    private static String path(File file) {
+        return (file == null)? null: file.getPath();
+    }
+
+
+    /**Index 0 stands for a null file.*/
+    private static File file(int index, File[] dictionary) {
+        return (index == 0)? null: dictionary[index-1];
+    }
+
+
+    /**A written file from which playlist sections are read on demand.
+    *Files read from any section are interned in FileRegistry,
+    *so that a path shared by several playlists is represented by a single File object.
+    */
+    static final class Source {
+        private final FileChannel channel;
+        private int holders = 1;  //The number of unreleased sections, plus one held while decoding or encoding
+
+        private Source(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private Section section(long offset, long length) {
+            acquire();
+            return new Section(this, offset, length);
+        }
+
+        private File intern(String path) {
+            return (path == null)? null: FileRegistry.canonical(new File(path));
+        }
+
+        private synchronized void acquire() {
+            holders++;
+        }
+
+        private synchronized void release() {
+            if (--holders == 0) {
+                try {
+                    channel.close();
+                }
+                catch (IOException ex) {}
+            }
+        }
+    }
+
+
+    /**A playlist section of a decoded file.*/
+    static final class Section {
+        private final Source source;
+        private final long offset, length;
+        private boolean released;
+
+        private Section(Source source, long offset, long length) {
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**Gets a section that reads the same bytes as this one,
+        *for an unread copy of the playlist.
+        *@return the section
+        */
+        synchronized Section duplicate() {
+            if (released)
+                return null;
+            return source.section(offset, length);
+        }
+
+        /**Reads the files of this section.
+        *@param size
+        *the number of files in the section
+        *@throws IOException
+        *if an io error occurs while reading
+        *@return the files read
+        */
+        synchronized List<File> read(int size) throws IOException {
+            if (released)
+                throw new IOException("Section already released");
+            try {
+                Input in = new Input(source.channel, offset);
+                List<File> list = new ArrayList<>(size);
+                String previous = "";
+                for (int i = 0; i < size; i++) {
+                    int prefix = in.readVarint();
+                    String suffix = in.readString();
+                    if (suffix == null)
+                        list.add(null);
+                    else {
+                        previous = previous.substring(0, prefix).concat(suffix);
+                        list.add(source.intern(previous));
+                    }
+                }
+                return list;
+            }
+            catch (IndexOutOfBoundsException ex) {
+                throw new IOException("Corrupt media info section", ex);
+            }
+        }
+
+        /**Lets go of the source of this section,
+        *closing it once no other section holds it.
+        */
+        synchronized void release() {
+            if (!released) {
+                released = true;
+                source.release();
+            }
+        }
+
+        /**Copies the bytes of this section to an output, unread.
+        *@return true if the bytes were copied,
+        *and false if the section was already released
+        */
+        synchronized boolean transferTo(Output out) throws IOException {
+            if (released)
+                return false;
+            out.transferFrom(source.channel, offset, length);
+            return true;
+        }
+    }
+
+
+    private static Duration duration(double millis) {
+        return (Double.isNaN(millis))? null: Duration.millis(millis);
+    }
+
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+
+    /**Buffers writes to a file channel.*/
+    static final class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long flushed;  //The number of bytes written to the channel
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    flushed += channel.write(buffer);
+                buffer.clear();
+            }
+        }
+
+        /**Gets the number of bytes written so far.*/
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        /**Copies bytes from another channel, unbuffered.*/
+        void transferFrom(FileChannel source, long offset, long length) throws IOException {
+            ensure(BUFFER_SIZE);
+            for (long count = 0; count < length;) {
+                long transferred = source.transferTo(offset + count, length - count, channel);
+                if (transferred <= 0)
+                    throw new java.io.EOFException();
+                count += transferred;
+            }
+            flushed += length;
+        }
+
+        void writeByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void writeInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void writeDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        void writeVarint(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        /**Writes a length-prefixed UTF-8 string; a length of 0 stands for null.*/
+        void writeString(String string) throws IOException {
+            if (string == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1);
+            for (int offset = 0; offset < bytes.length;) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                ensure(BUFFER_SIZE);
+            }
+            finally {
+                channel.close();
+            }
+        }
+    }
+
+
+    /**Buffers positional reads from a file channel,
+    *so that several inputs may read the same channel.
+    */
+    private static final class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long position;  //The channel position of the next read
+
+        Input(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+            buffer.flip();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes)
+                return;
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int count = channel.read(buffer, position);
+                if (count == -1)
+                    throw new EOFException();
+                position += count;
+            }
+            buffer.flip();
+        }
+
+        byte readByte() throws IOException {
+            ensure(1);
+            return buffer.get();
+        }
+
+        int readInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        long readLong() throws IOException {
+            ensure(8);
+            return buffer.getLong();
+        }
+
+        double readDouble() throws IOException {
+            ensure(8);
+            return buffer.getDouble();
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        String readString() throws IOException {
+            int length = readVarint() - 1;
+            if (length == -1)
+                return null;
+            byte[] bytes = new byte[length];
+            for (int offset = 0; offset < length;) {
+                ensure(1);
+                int count = Math.min(buffer.remaining(), length - offset);
+                buffer.get(bytes, offset, count);
+                offset += count;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
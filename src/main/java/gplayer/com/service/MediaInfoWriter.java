@@ -0,0 +1,139 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+
+/**Coalesces media info sync requests.
+*A request marks the media info dirty;
+*every request made within the sync window of the first is served by a single write.
+*The info is captured on the JavaFX Application thread,
+*and written on a background thread,
+*except when flushed, in which case it's captured and written on the calling thread.
+*@author Ganiyu Emilandu
+*/
+
+final class MediaInfoWriter {
+    private final Supplier<DataSerializer> capture;  //Captures a copy of the media info
+    private final Predicate<DataSerializer> write;  //Writes captured info, returning true on success
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "Media info writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicLong requested = new AtomicLong(), performed = new AtomicLong();
+    private final AtomicLong captures = new AtomicLong();  //Orders captured info, so that stale info is never written over fresher info
+    private long lastWrittenCapture;
+    private volatile long window;  //The sync window, in milliseconds
+
+    /**Creates a new instance of this class.
+    *@param capture
+    *captures a copy of the media info, or returns null if there's nothing to write
+    *@param write
+    *writes captured info, returning true on success
+    *@param window
+    *the sync window, in milliseconds
+    */
+    MediaInfoWriter(Supplier<DataSerializer> capture, Predicate<DataSerializer> write, long window) {
+        this.capture = capture;
+        this.write = write;
+        setWindow(window);
+    }
+
+    /**Sets the span of time within which sync requests are coalesced.
+    *@param window
+    *the sync window, in milliseconds
+    */
+    void setWindow(long window) {
+        this.window = Math.max(0, window);
+    }
+
+    /**Gets the span of time within which sync requests are coalesced.
+    *@return the sync window, in milliseconds
+    */
+    long getWindow() {
+        return window;
+    }
+
+    /**Marks the media info dirty,
+    *scheduling a write if one isn't already pending.
+    */
+    void request() {
+        requested.incrementAndGet();
+        if (dirty.compareAndSet(false, true))
+            executor.schedule(() -> Platform.runLater(this::captureAndWrite), window, TimeUnit.MILLISECONDS);
+    }
+
+    /**Captures and writes the media info on the calling thread,
+    *superseding any pending write.
+    */
+    void flush() {
+        dirty.set(false);
+        DataSerializer serialization = capture.get();
+        if (serialization != null)
+            write(serialization, captures.incrementAndGet());
+    }
+
+    /**Gets the number of sync requests made.
+    *@return the number of requests
+    */
+    long getRequestedWrites() {
+        return requested.get();
+    }
+
+    /**Gets the number of successful writes performed.
+    *@return the number of writes
+    */
+    long getPerformedWrites() {
+        return performed.get();
+    }
+
+
+    private void captureAndWrite() {
+        if (!dirty.getAndSet(false))
+            //Flushed in the meantime
+            return;
+        DataSerializer serialization = capture.get();
+        if (serialization != null) {
+            long capture = captures.incrementAndGet();
+            executor.execute(() -> write(serialization, capture));
+        }
+    }
+
+
+    private synchronized void write(DataSerializer serialization, long capture) {
+        if (capture < lastWrittenCapture) {
+            serialization.discard();
+            return;
+        }
+        if (write.test(serialization)) {
+            lastWrittenCapture = capture;
+            performed.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import gplayer.com.exec.GPlayer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**Records small media info changes,
+*(a played file, a removed playlist entry, an added or removed mediamark),
+*as an append-only log of sequenced records,
+*so the serialized DataSerializer snapshot needn't be rewritten on every change.
+*A snapshot remembers the sequence of the last record it already contains;
+*records beyond that sequence are replayed onto the snapshot at start up,
+*and dropped from the log once a newer snapshot is successfully written.
+*@author Ganiyu Emilandu
+*/
+
+final class MediaJournal {
+    static final byte FILE_PLAYED = 1, ENTRY_REMOVED = 2, FILE_POSITION = 3, MARKER_PUT = 4, MARKER_REMOVED = 5;
+    private static final long COMPACTION_SIZE = 1L << 20;  //Journal length, in bytes, beyond which a fresh snapshot is requested
+    private static final int COMPACTION_RECORDS = 4096;  //Number of records beyond which a fresh snapshot is requested
+    private final File file;  //The log file
+    private DataOutputStream outputStream;
+    private long sequence;  //Sequence number of the last appended record
+    private long length;  //Current length of the log file
+    private int records;  //Number of records currently held in the log file
+    private boolean snapshotRequired;  //Flags a change the log cannot express
+
+    /**Receives replayed records.*/
+    interface Replayer {
+        void filePlayed(String path, int filePosition);
+        void entryRemoved(String section, int index);
+        void filePosition(int filePosition);
+        void markerPut(String key, String path, double millis, boolean flag);
+        void markerRemoved(String key);
+    }
+
+    /**Creates a new instance of this class.
+    *@param path
+    *the path to the log file
+    */
+    MediaJournal(String path) {
+        file = new File(path);
+    }
+
+    /**Replays every intact record whose sequence exceeds a snapshot's,
+    *discarding any torn record left at the end of the log by an abrupt exit.
+    *@param snapshotSequence
+    *the sequence of the last record contained in the deserialized snapshot
+    *@param replayer
+    *the receiver of replayed records, or null if the log is to be discarded
+    *@return the number of records replayed
+    */
+    synchronized int replay(long snapshotSequence, Replayer replayer) {
+        closeStream();
+        sequence = snapshotSequence;
+        int replayed = 0;
+        List<byte[]> retained = new ArrayList<>();
+        if (replayer != null) {
+            for (byte[] record: readRecords()) {
+                try (DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(record))) {
+                    long seq = in.readLong();
+                    if (seq <= snapshotSequence)
+                        continue;
+                    byte type = in.readByte();
+                    switch (type) {
+                        case FILE_PLAYED:
+                            replayer.filePlayed(in.readUTF(), in.readInt());
+                            break;
+                        case ENTRY_REMOVED:
+                            replayer.entryRemoved(in.readUTF(), in.readInt());
+                            break;
+                        case FILE_POSITION:
+                            replayer.filePosition(in.readInt());
+                            break;
+                        case MARKER_PUT:
+                            replayer.markerPut(in.readUTF(), in.readUTF(), in.readDouble(), in.readBoolean());
+                            break;
+                        case MARKER_REMOVED:
+                            replayer.markerRemoved(in.readUTF());
+                            break;
+                        default:
+                            continue;
+                    }
+                    sequence = Math.max(sequence, seq);
+                    retained.add(record);
+                    replayed++;
+                }
+                catch (Exception ex) {
+                    GPlayer.LOGGER.log(Level.WARNING, "Unable to replay media journal record", ex);
+                }
+            }
+        }
+        rewrite(retained);
+        return replayed;
+    }
+
+    /**Gets the sequence of the last appended record.
+    *A snapshot captured now contains every record up to this sequence.
+    *@return the sequence number
+    */
+    synchronized long sequence() {
+        return sequence;
+    }
+
+    synchronized void filePlayed(String path, int filePosition) {
+        append(FILE_PLAYED, (out) -> {
+            out.writeUTF(path);
+            out.writeInt(filePosition);
+        });
+    }
+
+    synchronized void entryRemoved(String section, int index) {
+        append(ENTRY_REMOVED, (out) -> {
+            out.writeUTF(section);
+            out.writeInt(index);
+        });
+    }
+
+    synchronized void filePosition(int filePosition) {
+        append(FILE_POSITION, (out) -> out.writeInt(filePosition));
+    }
+
+    synchronized void markerPut(String key, String path, double millis, boolean flag) {
+        append(MARKER_PUT, (out) -> {
+            out.writeUTF(key);
+            out.writeUTF(path);
+            out.writeDouble(millis);
+            out.writeBoolean(flag);
+        });
+    }
+
+    synchronized void markerRemoved(String key) {
+        append(MARKER_REMOVED, (out) -> out.writeUTF(key));
+    }
+
+    /**Flags a change that cannot be expressed by a record,
+    *so that the next commit requests a fresh snapshot.
+    */
+    synchronized void requireSnapshot() {
+        snapshotRequired = true;
+    }
+
+    /**Pushes appended records to the log file.
+    *@return true if a fresh snapshot should be written,
+    *either because the log has grown past its compaction threshold,
+    *or because a change couldn't be recorded,
+    *and false otherwise
+    */
+    synchronized boolean commit() {
+        if (outputStream != null) {
+            try {
+                outputStream.flush();
+            }
+            catch (IOException ex) {
+                GPlayer.LOGGER.log(Level.WARNING, "Unable to flush media journal", ex);
+                closeStream();
+                snapshotRequired = true;
+            }
+        }
+        return snapshotRequired || length > COMPACTION_SIZE || records > COMPACTION_RECORDS;
+    }
+
+    /**Drops every record already contained in a successfully written snapshot.
+    *Records appended while the snapshot was being written are retained.
+    *@param snapshotSequence
+    *the sequence captured alongside the snapshot
+    */
+    synchronized void checkpoint(long snapshotSequence) {
+        if (snapshotSequence == sequence) {
+            snapshotRequired = false;
+            rewrite(new ArrayList<>());
+            return;
+        }
+        commit();
+        closeStream();
+        List<byte[]> retained = new ArrayList<>();
+        for (byte[] record: readRecords())
+            if (java.nio.ByteBuffer.wrap(record).getLong() > snapshotSequence)
+                retained.add(record);
+        rewrite(retained);
+    }
+
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+
+    private void append(byte type, RecordWriter writer) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeLong(sequence + 1);
+            out.writeByte(type);
+            writer.write(out);
+            byte[] record = buffer.toByteArray();
+            writeRecord(stream(), record);
+            length += record.length + 8;
+            records++;
+            sequence++;
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to append media journal record", ex);
+            closeStream();
+            snapshotRequired = true;
+        }
+    }
+
+
+    private DataOutputStream stream() throws IOException {
+        if (outputStream == null)
+            outputStream = new DataOutputStream(new BufferedOutputStream(new java.io.FileOutputStream(file, true)));
+        return outputStream;
+    }
+
+
+    private static void writeRecord(DataOutputStream out, byte[] record) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        out.writeInt(record.length);
+        out.write(record);
+        out.writeInt((int) crc.getValue());
+    }
+
+
+    /**Reads every intact record of the log, stopping at the first torn or corrupt one.*/
+    private List<byte[]> readRecords() {
+        List<byte[]> list = new ArrayList<>();
+        if (!file.exists())
+            return list;
+        try (DataInputStream in = new DataInputStream(new java.io.BufferedInputStream(new java.io.FileInputStream(file)))) {
+            while (true) {
+                int size = in.readInt();
+                if (size < 9)
+                    break;
+                byte[] record = new byte[size];
+                in.readFully(record);
+                CRC32 crc = new CRC32();
+                crc.update(record, 0, size);
+                if (in.readInt() != (int) crc.getValue())
+                    break;
+                list.add(record);
+            }
+        }
+        catch (java.io.EOFException ex) {}
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to read media journal", ex);
+        }
+        return list;
+    }
+
+
+    private void rewrite(List<byte[]> list) {
+        closeStream();
+        length = 0;
+        records = 0;
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new java.io.FileOutputStream(tempFile)))) {
+            for (byte[] record: list) {
+                writeRecord(out, record);
+                length += record.length + 8;
+                records++;
+            }
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to rewrite media journal", ex);
+            snapshotRequired = true;
+            return;
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException ex) {
+            GPlayer.LOGGER.log(Level.WARNING, "Unable to replace media journal", ex);
+            snapshotRequired = true;
+        }
+    }
+
+
+    private void closeStream() {
+        if (outputStream != null) {
+            try {
+                outputStream.close();
+            }
+            catch (IOException ex) {}
+            outputStream = null;
+        }
+    }
+}
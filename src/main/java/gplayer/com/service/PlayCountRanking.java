@@ -0,0 +1,319 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**Ranks files by play count, in an order-statistic tree,
+*(a treap whose nodes count their subtrees),
+*so that incrementing a play count, and finding the rank of a file or the file at a rank,
+*take logarithmic time.
+*Files played equally often rank in the order they reached that count, earliest first.
+*The ranking mirrors itself onto a playlist and a parallel list of play counts,
+*(mostPlayedPlayList and timesPlayed, as serialized and displayed),
+*moving a single entry of each per increment.
+*If the mirror is modified elsewhere, the ranking is rebuilt from it on next use.
+*@author Ganiyu Emilandu
+*/
+
+final class PlayCountRanking {
+    private final PlayList files;  //Files in order of rank
+    private final List<Integer> counts;  //Play counts, parallel to files
+    private final Runnable onReorder;  //Run when the mirror is reordered other than by increment
+    private final Random random = new Random();
+    private Node root;
+    private Node[] nodes = new Node[0];  //Maps a FileRegistry id to its node
+    private long stamp;  //Orders files of equal play count
+    private long mirrorModificationCount = -1;  //The modification count of files when the ranking last matched it
+
+    /**Creates a new instance of this class.
+    *The ranking is built from the lists on first use.
+    *@param files
+    *files in order of highest played to least played
+    *@param counts
+    *the play counts, parallel to files
+    *@param onReorder
+    *run when the lists are found out of order, and are reordered
+    */
+    PlayCountRanking(PlayList files, List<Integer> counts, Runnable onReorder) {
+        this.files = files;
+        this.counts = counts;
+        this.onReorder = onReorder;
+    }
+
+    /**Increments the play count of a file,
+    *moving it ahead of every file played fewer times.
+    *@param file
+    *the file
+    *@return the new play count of the file
+    */
+    synchronized int increment(File file) {
+        ensureCurrent();
+        int id = FileRegistry.intern(file);
+        Node node = node(id);
+        int from;
+        if (node == null) {
+            node = new Node(id, 0, 0);
+            if (id >= nodes.length)
+                nodes = Arrays.copyOf(nodes, Math.max(id + 1, nodes.length * 2));
+            nodes[id] = node;
+            files.add(file);
+            counts.add(0);
+            from = files.size() - 1;
+        }
+        else {
+            from = rank(node);
+            root = delete(root, node);
+        }
+        node.count++;
+        node.order = ++stamp;
+        node.left = node.right = null;
+        node.size = 1;
+        root = insert(root, node);
+        int to = rank(node);
+        files.move(from, to);
+        counts.remove(from);
+        counts.add(to, node.count);
+        mirrorModificationCount = files.modificationCount();
+        return node.count;
+    }
+
+    /**Gets the play count of a file.
+    *@param file
+    *the file
+    *@return the play count, or 0 if the file was never played
+    */
+    synchronized int count(File file) {
+        ensureCurrent();
+        Node node = node(FileRegistry.find(file));
+        return (node == null)? 0: node.count;
+    }
+
+    /**Gets the rank of a file.
+    *@param file
+    *the file
+    *@return the rank, 0 being the most played, or -1 if the file was never played
+    */
+    synchronized int rank(File file) {
+        ensureCurrent();
+        Node node = node(FileRegistry.find(file));
+        return (node == null)? -1: rank(node);
+    }
+
+    /**Gets the most played files.
+    *@param k
+    *the number of files to get
+    *@return up to k files, in order of rank
+    */
+    synchronized List<File> top(int k) {
+        ensureCurrent();
+        List<File> top = new ArrayList<>(Math.min(k, size(root)));
+        collect(root, top, k);
+        return top;
+    }
+
+    /**Gets the number of ranked files.
+    *@return the number of ranked files
+    */
+    synchronized int size() {
+        ensureCurrent();
+        return size(root);
+    }
+
+
+    private Node node(int id) {
+        return (id >= 0 && id < nodes.length)? nodes[id]: null;
+    }
+
+
+    //Rebuilds the ranking if the mirror was modified elsewhere
+    private void ensureCurrent() {
+        files.access();  //Reads a lazy list, and applies the changes awaiting the read, before it's compared
+        if (mirrorModificationCount == files.modificationCount())
+            return;
+        root = null;
+        nodes = new Node[FileRegistry.size()];
+        int size = Math.min(files.size(), counts.size());
+        boolean ordered = files.size() == counts.size();
+        int previousCount = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int id = files.id(i);
+            Integer count = counts.get(i);
+            if (id < 0 || id < nodes.length && nodes[id] != null || count == null) {
+                ordered = false;  //Nulls and duplicates aren't ranked
+                continue;
+            }
+            ordered &= count <= previousCount;
+            previousCount = count;
+            Node node = new Node(id, count, i);
+            if (id >= nodes.length)
+                nodes = Arrays.copyOf(nodes, id + 1);
+            nodes[id] = node;
+            root = insert(root, node);
+        }
+        stamp = size;
+        //Mirror the ranking back, if the lists disagreed with it
+        if (!ordered) {
+            List<File> rankedFiles = new ArrayList<>(size(root));
+            collect(root, rankedFiles, Integer.MAX_VALUE);
+            files.clear();
+            files.addAll(rankedFiles);
+            counts.clear();
+            for (File file: rankedFiles)
+                counts.add(nodes[FileRegistry.find(file)].count);
+            onReorder.run();
+        }
+        mirrorModificationCount = files.modificationCount();
+    }
+
+
+    //Orders nodes by play count, highest first, then by the order they reached it
+    private static boolean precedes(Node a, Node b) {
+        return (a.count != b.count)? a.count > b.count: a.order < b.order;
+    }
+
+
+    private static int size(Node node) {
+        return (node == null)? 0: node.size;
+    }
+
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+
+    private Node insert(Node tree, Node node) {
+        if (tree == null) {
+            node.priority = random.nextInt();
+            node.left = node.right = null;
+            node.size = 1;
+            return node;
+        }
+        if (precedes(node, tree)) {
+            tree.left = insert(tree.left, node);
+            if (tree.left.priority > tree.priority)
+                tree = rotateRight(tree);
+        }
+        else {
+            tree.right = insert(tree.right, node);
+            if (tree.right.priority > tree.priority)
+                tree = rotateLeft(tree);
+        }
+        update(tree);
+        return tree;
+    }
+
+
+    private Node delete(Node tree, Node node) {
+        if (tree == node)
+            return merge(tree.left, tree.right);
+        if (precedes(node, tree))
+            tree.left = delete(tree.left, node);
+        else
+            tree.right = delete(tree.right, node);
+        update(tree);
+        return tree;
+    }
+
+
+    private Node merge(Node left, Node right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+
+    private int rank(Node node) {
+        int rank = 0;
+        Node tree = root;
+        while (tree != null) {
+            if (tree == node)
+                return rank + size(tree.left);
+            if (precedes(node, tree)) {
+                tree = tree.left;
+            }
+            else {
+                rank += size(tree.left) + 1;
+                tree = tree.right;
+            }
+        }
+        return -1;
+    }
+
+
+    //Appends, in order, up to limit files of a subtree
+    private static void collect(Node tree, List<File> list, int limit) {
+        while (tree != null && list.size() < limit) {
+            collect(tree.left, list, limit);
+            if (list.size() < limit)
+                list.add(FileRegistry.file(tree.id));
+            tree = tree.right;
+        }
+    }
+
+
+    private static final class Node {
+        final int id;  //FileRegistry id of the file
+        int count;  //Play count
+        long order;  //Orders nodes of equal count
+        int priority;  //Heap priority of the treap
+        int size = 1;  //Number of nodes in the subtree rooted here
+        Node left, right;
+
+        Node(int id, int count, long order) {
+            this.id = id;
+            this.count = count;
+            this.order = order;
+        }
+    }
+}
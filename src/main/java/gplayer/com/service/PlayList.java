@@ -0,0 +1,1015 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**A list of media files held in a circular array,
+*so that positional access is constant time,
+*and insertion or removal at either end is amortized constant time.
+*Insertion or removal elsewhere shifts the shorter side of the list,
+*and bulk removals compact the list in a single pass.
+*Files are held as their FileRegistry ids,
+*so that lists holding the same path share one File object for it,
+*and membership and position queries compare ints rather than paths.
+*Positions of files are looked up through an index built on demand,
+*which lasts till the list is next modified.
+*Of a list holding no file twice, moves, insertions at either end, and removals from either end
+*keep the index current, so that a list reordered on every play, as recentPlayList is, stays indexed.
+*It counts its modifications, replacements of elements included,
+*so that whether it changed since it was last serialized
+*can be told without comparing its contents.
+*@author Ganiyu Emilandu
+*/
+
+public class PlayList extends AbstractList<File> implements Deque<File>, RandomAccess, Cloneable, java.io.Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int[] EMPTY = {};
+    private static final int INDEX_THRESHOLD = 32;  //Lists smaller than this are scanned, not indexed
+    private transient int[] ids = EMPTY;
+    private transient int head;  //Array position of the first file
+    private transient int size;
+    private int replacements;  //Element replacements, which aren't counted as structural modifications
+    private transient int[] index;  //Open-addressed table of id and first position pairs, ids offset by 2, so that 0 marks an empty slot
+    private transient int[] nextPositions;  //Maps each position of an indexed list to the next position of the same file, or -1, or null if no file occurs twice
+    private transient int indexOffset;  //Added to the positions held in index, so that an insertion at the front shifts them all at once
+    private transient long indexModificationCount = -1;  //The modification count for which index, or indexQueries, holds
+    private transient int indexQueries;  //Position queries made since the list was last modified
+    private transient PlayList origin;  //The list this list is a serialization snapshot of
+    private transient long originModificationCount;  //The modification count of the origin when snapshot
+    private transient MediaInfoCodec.Section writtenSection;  //Where this list was last serialized
+    private transient long writtenModificationCount;  //The modification count of this list when last serialized
+    private transient AttributeColumns attributeColumns;  //Attributes of the files of this list, cached for sorting
+
+    /**Creates an empty playlist.*/
+    public PlayList() {
+        super();
+    }
+
+    /**Creates a playlist containing the elements of a collection,
+    *in the order returned by its iterator.
+    *@param c
+    *the collection whose elements are to be placed into this playlist
+    */
+    public PlayList(Collection<? extends File> c) {
+        if (c instanceof PlayList) {
+            ids = ((PlayList) c).toIdArray();
+            size = ids.length;
+        }
+        else {
+            Object[] array = c.toArray();
+            ids = (array.length == 0)? EMPTY: new int[array.length];
+            for (int i = 0; i < array.length; i++)
+                ids[i] = FileRegistry.intern((File) array[i]);
+            size = array.length;
+        }
+    }
+
+    /**Gets a number that changes whenever this list is modified.
+    *@return the modification count
+    */
+    public long modificationCount() {
+        return (long) modCount + replacements;
+    }
+
+    /**Invoked before the contents of this list are accessed,
+    *and before its size is taken to locate them.
+    *Does nothing here; LazyPlayList reads its files here.
+    */
+    void access() {}
+
+    //Maps a list position to its array position
+    private int slot(int position) {
+        int slot = head + position;
+        return (slot >= ids.length)? slot - ids.length: slot;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    //Copies the ids into a new array of the specified capacity, with a gap of gapSize ids at position gapIndex
+    private void reallocate(int capacity, int gapIndex, int gapSize) {
+        int[] array = new int[capacity];
+        copyOut(0, array, 0, gapIndex);
+        copyOut(gapIndex, array, gapIndex + gapSize, size - gapIndex);
+        ids = array;
+        head = 0;
+    }
+
+    //Copies length ids from the specified list position into an array
+    private void copyOut(int position, int[] array, int arrayPosition, int length) {
+        if (length <= 0)
+            return;
+        int slot = slot(position), firstPart = Math.min(length, ids.length - slot);
+        System.arraycopy(ids, slot, array, arrayPosition, firstPart);
+        if (firstPart < length)
+            System.arraycopy(ids, 0, array, arrayPosition + firstPart, length - firstPart);
+    }
+
+    private int grownCapacity(int minCapacity) {
+        if (minCapacity < 0)
+            throw new OutOfMemoryError();
+        int capacity = ids.length + (ids.length >> 1);
+        return Math.max(Math.max(capacity, minCapacity), 10);
+    }
+
+    /**Gets the FileRegistry ids of the files of this list.
+    *@return a new array of the ids, in list order
+    */
+    int[] toIdArray() {
+        access();
+        int[] array = new int[size];
+        copyOut(0, array, 0, size);
+        return array;
+    }
+
+    /**Gets the FileRegistry id of the file at a position.
+    *@param index
+    *the position
+    *@return the id
+    */
+    int id(int index) {
+        access();
+        checkIndex(index);
+        return ids[slot(index)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public File get(int index) {
+        access();
+        checkIndex(index);
+        return FileRegistry.file(ids[slot(index)]);
+    }
+
+    @Override
+    public File set(int index, File file) {
+        access();
+        checkIndex(index);
+        int slot = slot(index);
+        int oldId = ids[slot];
+        ids[slot] = FileRegistry.intern(file);
+        replacements++;
+        return FileRegistry.file(oldId);
+    }
+
+    @Override
+    public boolean add(File file) {
+        access();
+        add(size(), file);
+        return true;
+    }
+
+    @Override
+    public void add(int index, File file) {
+        access();
+        checkPositionIndex(index);
+        int id = FileRegistry.intern(file);
+        boolean indexed = (index == 0 || index == size) && isIndexKept(id);
+        modCount++;
+        if (size == ids.length) {
+            reallocate(grownCapacity(size + 1), index, 1);
+        }
+        else if (index < size / 2) {
+            //Shift the leading ids one slot backward
+            head = (head == 0)? ids.length - 1: head - 1;
+            for (int i = 0; i < index; i++)
+                ids[slot(i)] = ids[slot(i + 1)];
+        }
+        else {
+            //Shift the trailing ids one slot forward
+            for (int i = size; i > index; i--)
+                ids[slot(i)] = ids[slot(i - 1)];
+        }
+        ids[slot(index)] = id;
+        size++;
+        if (indexed) {
+            if (index == 0)
+                indexOffset++;
+            indexPosition(id, index);
+            indexModificationCount = modificationCount();
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends File> c) {
+        access();
+        return addAll(size(), c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends File> c) {
+        access();
+        checkPositionIndex(index);
+        int[] array;
+        if (c instanceof PlayList) {
+            array = ((PlayList) c).toIdArray();
+        }
+        else {
+            Object[] files = c.toArray();
+            array = new int[files.length];
+            for (int i = 0; i < files.length; i++)
+                array[i] = FileRegistry.intern((File) files[i]);
+        }
+        int length = array.length;
+        if (length == 0)
+            return false;
+        modCount++;
+        if (index != size || size + length > ids.length)
+            reallocate((size + length > ids.length)? grownCapacity(size + length): ids.length, index, length);
+        for (int i = 0; i < length; i++)
+            ids[slot(index + i)] = array[i];
+        size += length;
+        return true;
+    }
+
+    @Override
+    public File remove(int index) {
+        access();
+        checkIndex(index);
+        modCount++;
+        int id = ids[slot(index)];
+        if (index < size / 2) {
+            //Shift the leading ids one slot forward
+            for (int i = index; i > 0; i--)
+                ids[slot(i)] = ids[slot(i - 1)];
+            head = slot(1);
+        }
+        else {
+            //Shift the trailing ids one slot backward
+            for (int i = index; i < size - 1; i++)
+                ids[slot(i)] = ids[slot(i + 1)];
+        }
+        if (--size == 0)
+            head = 0;
+        return FileRegistry.file(id);
+    }
+
+    /**Moves the file at a position to another position,
+    *shifting the files between them by one.
+    *@param from
+    *the position of the file
+    *@param to
+    *the position to move the file to
+    */
+    void move(int from, int to) {
+        access();
+        checkIndex(from);
+        checkIndex(to);
+        if (from == to)
+            return;
+        boolean indexed = isIndexKept();
+        modCount++;
+        int id = ids[slot(from)];
+        if (head + size <= ids.length) {
+            //The files don't wrap around the array
+            if (from > to)
+                System.arraycopy(ids, head + to, ids, head + to + 1, from - to);
+            else
+                System.arraycopy(ids, head + from + 1, ids, head + from, to - from);
+        }
+        else if (from > to) {
+            for (int i = from; i > to; i--)
+                ids[slot(i)] = ids[slot(i - 1)];
+        }
+        else {
+            for (int i = from; i < to; i++)
+                ids[slot(i)] = ids[slot(i + 1)];
+        }
+        ids[slot(to)] = id;
+        if (indexed) {
+            //Only the files between the two positions have moved
+            for (int i = Math.min(from, to), last = Math.max(from, to); i <= last; i++)
+                indexPosition(ids[slot(i)], i);
+            indexModificationCount = modificationCount();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0)
+            return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        access();
+        if (fromIndex >= toIndex)
+            return;
+        boolean indexed = (fromIndex == 0 || toIndex == size) && isIndexKept();
+        if (indexed) {
+            for (int i = fromIndex; i < toIndex; i++)
+                unindex(ids[slot(i)]);
+            if (fromIndex == 0)
+                indexOffset -= toIndex;
+        }
+        modCount++;
+        int removed = toIndex - fromIndex;
+        for (int i = fromIndex; i < size - removed; i++)
+            ids[slot(i)] = ids[slot(i + removed)];
+        size -= removed;
+        if (size == 0)
+            head = 0;
+        if (indexed)
+            indexModificationCount = modificationCount();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super File> filter) {
+        Objects.requireNonNull(filter);
+        return removeIds((id) -> filter.test(FileRegistry.file(id)));
+    }
+
+    //Removes the files whose ids pass a filter
+    private boolean removeIds(IntPredicate filter) {
+        access();
+        //Test every file before removing any, so that a failing filter leaves the list untouched
+        BitSet victims = new BitSet(size);
+        int expectedModCount = modCount;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(ids[slot(i)]))
+                victims.set(i);
+        }
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+        return removeAll(victims);
+    }
+
+    /**Removes the files at the positions set in a bitset,
+    *compacting this list in a single pass.
+    *@param positions
+    *the positions of the files to remove
+    *@return true if any file was removed, and false otherwise
+    */
+    boolean removeAll(BitSet positions) {
+        access();
+        int victim = positions.nextSetBit(0);
+        if (victim < 0 || victim >= size)
+            return false;
+        int kept = victim;
+        for (int i = victim; i < size; i++) {
+            if (!positions.get(i))
+                ids[slot(kept++)] = ids[slot(i)];
+        }
+        size = kept;
+        if (size == 0)
+            head = 0;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        IdSet members = (c instanceof PlayList)? new IdSet((PlayList) c): new IdSet(c);
+        return removeIds(members::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        IdSet members = (c instanceof PlayList)? new IdSet((PlayList) c): new IdSet(c);
+        return removeIds((id) -> !members.contains(id));
+    }
+
+    @Override
+    public void clear() {
+        access();
+        modCount++;
+        head = size = 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        access();
+        if (o != null && !(o instanceof File))
+            return -1;
+        int id = (o == null)? -1: FileRegistry.find(o);
+        if (id == -1 && o != null)
+            return -1;
+        return indexOfId(id);
+    }
+
+    /**Gets the first position of a file, by its FileRegistry id.
+    *@param id
+    *the id of the file
+    *@return the position, or -1 if this list doesn't contain the file
+    */
+    int indexOfId(int id) {
+        return indexOfId(id, false);
+    }
+
+
+    private int indexOfId(int id, boolean bulk) {
+        access();
+        if (positions(bulk) != null)
+            return firstPosition(id);
+        for (int i = 0; i < size; i++) {
+            if (ids[slot(i)] == id)
+                return i;
+        }
+        return -1;
+    }
+
+    /**Marks the positions of several files,
+    *a file given more than once marking as many of its occurrences, earliest first.
+    *The index is built at once, however recently this list was modified,
+    *so that each file is found by a hash lookup rather than a scan.
+    *@param files
+    *the files to find
+    *@return the positions of the files found in this list
+    */
+    BitSet positionsOf(Collection<?> files) {
+        access();
+        BitSet found = new BitSet(size);
+        int[] positions = positions(true);
+        for (Object o: files) {
+            if (o != null && !(o instanceof File))
+                continue;
+            int id = (o == null)? -1: FileRegistry.find(o);
+            if (id == -1 && o != null)
+                continue;
+            if (positions != null) {
+                int position = firstPosition(id);
+                while (position != -1 && found.get(position))
+                    position = (nextPositions == null)? -1: nextPositions[position];
+                if (position != -1)
+                    found.set(position);
+            }
+            else {
+                for (int i = 0; i < size; i++) {
+                    if (ids[slot(i)] == id && !found.get(i)) {
+                        found.set(i);
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**Moves a file to the front of this list, adding it if absent.
+    *The index is built at once, and kept current by the move,
+    *so that a list reordered this way on every play finds each file by a hash lookup rather than a scan.
+    *@param id
+    *the FileRegistry id of the file
+    *@return the former position of the file, or -1 if it was added
+    */
+    int moveToFront(int id) {
+        int position = indexOfId(id, true);
+        if (position > 0)
+            move(position, 0);
+        else if (position < 0)
+            add(0, FileRegistry.file(id));
+        return position;
+    }
+
+    //Looks an id up in the index
+    private int firstPosition(int id) {
+        int slot = indexSlot(id);
+        return (index[slot] == 0)? -1: index[slot + 1] + indexOffset;
+    }
+
+    //Gets the slot of the index holding an id, or the empty slot it would be put in
+    private int indexSlot(int id) {
+        int mask = index.length - 2, slot = spread(id) & mask;
+        while (index[slot] != 0 && index[slot] != id + 2)
+            slot = (slot + 2) & mask;
+        return slot;
+    }
+
+    /**Ascertains if the index is current, and can be kept so through a modification,
+    *which requires that no file occurs twice.
+    *@return true if the modification is to update the index,
+    *and false if the index is to be dropped
+    */
+    private boolean isIndexKept() {
+        return index != null && nextPositions == null && indexModificationCount == modificationCount();
+    }
+
+    /**Ascertains if the index can be kept current through the addition of a file,
+    *which requires as well that the file isn't already in this list, and that the index has room for it.
+    *@param id
+    *the id of the file
+    *@return true if the addition is to update the index,
+    *and false if the index is to be dropped
+    */
+    private boolean isIndexKept(int id) {
+        return isIndexKept() && firstPosition(id) == -1 && (size + 1) * 4 <= index.length;
+    }
+
+    //Records the position of a file in the index
+    private void indexPosition(int id, int position) {
+        int slot = indexSlot(id);
+        index[slot] = id + 2;
+        index[slot + 1] = position - indexOffset;
+    }
+
+    //Removes a file from the index, shifting back the entries which probed past it
+    private void unindex(int id) {
+        int mask = index.length - 2, slot = indexSlot(id);
+        if (index[slot] == 0)
+            return;
+        for (int next = (slot + 2) & mask; index[next] != 0; next = (next + 2) & mask) {
+            int home = spread(index[next] - 2) & mask;
+            //An entry may fill the vacated slot unless its home lies cyclically after the slot, up to the entry
+            if ((next > slot)? home <= slot || home > next: home <= slot && home > next) {
+                index[slot] = index[next];
+                index[slot + 1] = index[next + 1];
+                slot = next;
+            }
+        }
+        index[slot] = 0;
+        index[slot + 1] = 0;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        access();
+        if (o != null && !(o instanceof File))
+            return -1;
+        int id = (o == null)? -1: FileRegistry.find(o);
+        if (id == -1 && o != null)
+            return -1;
+        for (int i = size - 1; i >= 0; i--) {
+            if (ids[slot(i)] == id)
+                return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**Gets the index of the positions of each file,
+    *building it on the second position query made since this list was last modified,
+    *so that a list modified between queries isn't indexed in vain.
+    *The index maps each file to its first position,
+    *and nextPositions chains each position to the next position of the same file.
+    *@param bulk
+    *true if the query is one of many made at once, which builds the index at once
+    *@return the index, or null if this list is to be scanned
+    */
+    private int[] positions(boolean bulk) {
+        long count = modificationCount();
+        if (indexModificationCount != count) {
+            index = null;
+            nextPositions = null;
+            indexQueries = 0;
+            indexModificationCount = count;
+        }
+        if (index == null && size >= INDEX_THRESHOLD && (++indexQueries > 1 || bulk)) {
+            int[] positions = new int[Integer.highestOneBit(size * 2 - 1) * 4];
+            int[] next = new int[size];
+            boolean repeated = false;
+            int mask = positions.length - 2;
+            //Index from the last position down, so that each file ends up mapped to its first
+            for (int i = size - 1; i >= 0; i--) {
+                int id = ids[slot(i)], slot = spread(id) & mask;
+                while (positions[slot] != 0 && positions[slot] != id + 2)
+                    slot = (slot + 2) & mask;
+                if (positions[slot] == 0) {
+                    positions[slot] = id + 2;
+                    next[i] = -1;
+                }
+                else {
+                    next[i] = positions[slot + 1];
+                    repeated = true;
+                }
+                positions[slot + 1] = i;
+            }
+            nextPositions = (repeated)? next: null;
+            indexOffset = 0;
+            index = positions;
+        }
+        return index;
+    }
+
+
+    private static int spread(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) << 1;
+    }
+
+    @Override
+    public Iterator<File> iterator() {
+        access();
+        return super.iterator();
+    }
+
+    @Override
+    public ListIterator<File> listIterator(int index) {
+        access();
+        return super.listIterator(index);
+    }
+
+    @Override
+    public Iterator<File> descendingIterator() {
+        access();
+        ListIterator<File> iterator = listIterator(size());
+        return new Iterator<File>() {
+            public boolean hasNext() {return iterator.hasPrevious();}
+            public File next() {return iterator.previous();}
+            public void remove() {iterator.remove();}
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super File> action) {
+        Objects.requireNonNull(action);
+        access();
+        int expectedModCount = modCount;
+        for (int i = 0; i < size && modCount == expectedModCount; i++)
+            action.accept(FileRegistry.file(ids[slot(i)]));
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<File> operator) {
+        Objects.requireNonNull(operator);
+        access();
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            ids[slot] = FileRegistry.intern(operator.apply(FileRegistry.file(ids[slot])));
+        }
+        replacements++;
+    }
+
+    @Override
+    public void sort(Comparator<? super File> c) {
+        access();
+        File[] files = toArray(new File[size]);
+        Arrays.sort(files, c);
+        for (int i = 0; i < size; i++)
+            ids[slot(i)] = FileRegistry.intern(files[i]);
+        replacements++;
+    }
+
+    /**Rearranges this list by a permutation of its positions,
+    *as a sort does, in a single pass.
+    *@param order
+    *the current position of each file, by its new position
+    *@throws IllegalArgumentException
+    *if order isn't as long as this list
+    */
+    void reorder(int[] order) {
+        access();
+        if (order.length != size)
+            throw new IllegalArgumentException("Order length " + order.length + " differs from size " + size);
+        int[] array = toIdArray();
+        for (int i = 0; i < size; i++)
+            ids[slot(i)] = array[order[i]];
+        replacements++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        access();
+        return toArray(new Object[size()]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        access();
+        T[] array = (a.length >= size)? a: (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+        for (int i = 0; i < size; i++)
+            array[i] = (T) FileRegistry.file(ids[slot(i)]);
+        if (array.length > size)
+            array[size] = null;
+        return array;
+    }
+
+    @Override
+    public Object clone() {
+        return new PlayList(this);
+    }
+
+    @Override
+    public void addFirst(File file) {
+        add(0, file);
+    }
+
+    @Override
+    public void addLast(File file) {
+        access();
+        add(size(), file);
+    }
+
+    @Override
+    public boolean offerFirst(File file) {
+        addFirst(file);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(File file) {
+        addLast(file);
+        return true;
+    }
+
+    @Override
+    public boolean offer(File file) {
+        return offerLast(file);
+    }
+
+    @Override
+    public void push(File file) {
+        addFirst(file);
+    }
+
+    @Override
+    public File removeFirst() {
+        access();
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return remove(0);
+    }
+
+    @Override
+    public File removeLast() {
+        access();
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return remove(size() - 1);
+    }
+
+    @Override
+    public File remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public File pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public File pollFirst() {
+        access();
+        return (isEmpty())? null: remove(0);
+    }
+
+    @Override
+    public File pollLast() {
+        access();
+        return (isEmpty())? null: remove(size() - 1);
+    }
+
+    @Override
+    public File poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public File getFirst() {
+        access();
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return get(0);
+    }
+
+    @Override
+    public File getLast() {
+        access();
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return get(size() - 1);
+    }
+
+    @Override
+    public File element() {
+        return getFirst();
+    }
+
+    @Override
+    public File peekFirst() {
+        access();
+        return (isEmpty())? null: get(0);
+    }
+
+    @Override
+    public File peekLast() {
+        access();
+        return (isEmpty())? null: get(size() - 1);
+    }
+
+    @Override
+    public File peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        return remove(o);
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        int index = lastIndexOf(o);
+        if (index < 0)
+            return false;
+        remove(index);
+        return true;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        access();
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++)
+            out.writeObject(FileRegistry.file(ids[slot(i)]));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        size = in.readInt();
+        ids = (size == 0)? EMPTY: new int[size];
+        for (int i = 0; i < size; i++)
+            ids[i] = FileRegistry.intern((File) in.readObject());
+        indexModificationCount = -1;
+    }
+
+    /**A set of the FileRegistry ids of a list's files,
+    *as a bitset, since ids are dense.
+    */
+    private static final class IdSet {
+        private final BitSet ids = new BitSet();
+        private boolean containsNull;
+
+        IdSet(PlayList list) {
+            for (int id: list.toIdArray()) {
+                if (id < 0)
+                    containsNull = true;
+                else
+                    ids.set(id);
+            }
+        }
+
+        IdSet(Collection<?> c) {
+            for (Object o: c) {
+                int id = FileRegistry.find(o);
+                if (o == null)
+                    containsNull = true;
+                else if (id >= 0)
+                    ids.set(id);
+            }
+        }
+
+        boolean contains(int id) {
+            return (id < 0)? containsNull: ids.get(id);
+        }
+    }
+
+    /**Gets the attributes cached for sorting the files of this list,
+    *creating the cache on first use.
+    *@return the cache
+    */
+    synchronized AttributeColumns attributeColumns() {
+        if (attributeColumns == null)
+            attributeColumns = new AttributeColumns();
+        return attributeColumns;
+    }
+
+    /**Gets the attributes cached for sorting the files of this list.
+    *@return the cache, or null if none was created
+    */
+    synchronized AttributeColumns cachedAttributeColumns() {
+        return attributeColumns;
+    }
+
+    /**Ascertains if this list is unmodified since it was last serialized.
+    *@return true if unmodified, and false if modified or never serialized
+    */
+    synchronized boolean isWritten() {
+        return writtenSection != null && writtenModificationCount == modificationCount();
+    }
+
+    /**Records where this list was serialized,
+    *letting go of the section it was previously serialized to.
+    *@param section
+    *the section to which this list was serialized
+    *@param modificationCount
+    *the modification count of this list when serialized
+    */
+    synchronized void markWritten(MediaInfoCodec.Section section, long modificationCount) {
+        if (writtenSection != null && writtenSection != section)
+            writtenSection.release();
+        writtenSection = section;
+        writtenModificationCount = modificationCount;
+    }
+
+    /**Gets the section to which this list was last serialized.
+    *@return the section, or null if never serialized
+    */
+    synchronized MediaInfoCodec.Section writtenSection() {
+        return writtenSection;
+    }
+
+    /**Copies the section to which this list was last serialized to an output,
+    *if the list is unmodified since.
+    *@param out
+    *the output to copy to
+    *@throws IOException
+    *if an io error occurs while copying
+    *@return the number of files copied, or -1 if nothing was copied
+    */
+    synchronized int transferTo(MediaInfoCodec.Output out) throws IOException {
+        return (isWritten() && writtenSection.transferTo(out))? writtenSize(): -1;
+    }
+
+    /**Gets the number of files in the section to which this list was last serialized,
+    *while isWritten() holds.
+    *@return the number of files
+    */
+    synchronized int writtenSize() {
+        return size();
+    }
+
+    /**Copies this list for serialization.
+    *If unmodified since it was last serialized,
+    *the copy is an unread view of the section it was serialized to,
+    *which MediaInfoCodec copies verbatim.
+    *@return the copy
+    */
+    synchronized PlayList snapshot() {
+        long count = modificationCount();
+        MediaInfoCodec.Section section = (isWritten())? writtenSection.duplicate(): null;
+        PlayList copy = (section != null)? new LazyPlayList(section, writtenSize()): new PlayList(this);
+        copy.origin = this;
+        copy.originModificationCount = count;
+        return copy;
+    }
+
+    /**Lets go of the section held by this snapshot, once written or discarded.*/
+    void discard() {
+        if (origin != null)
+            markWritten(null, 0);
+    }
+
+    /**Gets the list this list is a serialization snapshot of.
+    *@return the origin, or null if this list isn't a snapshot
+    */
+    PlayList origin() {
+        return origin;
+    }
+
+    /**Gets the modification count of the origin of this snapshot when it was taken.
+    *@return the modification count
+    */
+    long originModificationCount() {
+        return originModificationCount;
+    }
+}
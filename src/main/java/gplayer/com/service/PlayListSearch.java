@@ -23,7 +23,6 @@ import gplayer.com.service.enumconst.FileFilter;
 import gplayer.com.util.Utility;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -52,8 +51,8 @@ public class PlayListSearch {
     static boolean runValue = false;
     static int filePosition = 0;
     static TreeMap<Integer, File> treeMap = new TreeMap<>();
-    static LinkedList<File> linkedList =  new LinkedList<>();
-    static LinkedList<File> recentFiles =  new LinkedList<>();
+    static PlayList linkedList =  new PlayList();
+    static PlayList recentFiles =  new PlayList();
     static ArrayList<Integer> fileIndices = new ArrayList<>();
     static TreeMap<Integer, File> fileMap = new TreeMap<>();
     static String searchStringHolder = "";
@@ -68,7 +67,7 @@ public class PlayListSearch {
     *@param num
     *holds an array of integer values, usually one or none
     */
-    public PlayListSearch(String s, LinkedList<File> ll, int... num) {
+    public PlayListSearch(String s, PlayList ll, int... num) {
         if (LOGGER == null)
             createLogger();
         String myString = (lastSearchedString.equals(searchStringHolder))? searchStringHolder: searchStringFilter;
@@ -117,7 +116,7 @@ public class PlayListSearch {
                             GPlayer.getSceneRoot().playMedia(play);
                         }
                         else {
-                            LinkedList<File> matchFiles = PlayListSearchAction.sortedFiles;
+                            PlayList matchFiles = PlayListSearchAction.sortedFiles;
                             if (!matchFiles.isEmpty()) {
                                 searchStringFilter = searchString;
                                 lastSearchedString = searchString;
@@ -179,9 +178,9 @@ public class PlayListSearch {
     *@param position
     *the current playing media position
     */
-    private void createGoToPlayList(LinkedList<File> ll, boolean[] matchResult, int position) {
+    private void createGoToPlayList(PlayList ll, boolean[] matchResult, int position) {
         ArrayList<Integer> fileIndices = new ArrayList<>();
-        LinkedList<File> recentFiles = new LinkedList<>();
+        PlayList recentFiles = new PlayList();
         if (!PlayListSearchAction.clq.isEmpty()) {
             //Great, we have fresh search result
             //Update the older one then
@@ -233,7 +232,9 @@ public class PlayListSearch {
         PlayListSearchAction.ai.getAndSet(FileMedia.getFilePosition());
         long startTime = System.nanoTime();
         //Invoke the task to begin the search
-        new PlayListSearchAction(linkedList, boolArray, stringArray, searchString, 0, stringArray.length).invoke();
+        PlayListSearchAction action = new PlayListSearchAction(linkedList, boolArray, stringArray, searchString, 0, stringArray.length);
+        if (!action.findIndexedMatch())
+            action.invoke();
         LOGGER.info("Ended the search process in: " + (System.nanoTime() - startTime));
         return boolArray;
     }
@@ -320,7 +321,7 @@ public class PlayListSearch {
     *@param number
     *the recorded/older index
     */
-    private static void updateMatchIndex(LinkedList<File> ll, File file, int number) {
+    private static void updateMatchIndex(PlayList ll, File file, int number) {
         linkedList = ll;
         linkedListSize = linkedList.size();
         int fileIndex = number;
@@ -362,7 +363,7 @@ public class PlayListSearch {
                 //otherwise
                 treeMap.put(index, files);  //Store its value in tree map
             }
-            recentFiles = new LinkedList<>();
+            recentFiles = new PlayList();
             fileIndices = new ArrayList<>();
         }
         //Iterate through the tree map items
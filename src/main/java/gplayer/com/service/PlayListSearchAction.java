@@ -22,7 +22,8 @@ import gplayer.com.service.enumconst.FileFilter;
 import gplayer.com.util.Utility;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.StringTokenizer;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.RecursiveAction;
@@ -42,7 +43,7 @@ class PlayListSearchAction extends RecursiveAction {
     //A run time instance
     private Runtime r = Runtime.getRuntime();
     private Logger logger = PlayListSearch.createLogger();
-    private LinkedList<File> linkedList;
+    private PlayList linkedList;
     private final int THRESHOLD_MAX = 2000;  //The highest value of any set threshold
     private final int THRESHOLD_MIN = 1000;  //The lowest value of any set threshold
     static int threshold;  //Holds the average work load
@@ -53,34 +54,28 @@ class PlayListSearchAction extends RecursiveAction {
     private static FileFilter FILTER = FileFilter.CONTAINS;  //The search parameter
     static ConcurrentLinkedQueue<Integer> clq;
     static ArrayList<Integer> sortedIndices;
-    static LinkedList<File> sortedFiles;
+    static PlayList sortedFiles;
     static AtomicInteger ai = new AtomicInteger(0);
+    private static final TrigramIndex TRIGRAM_INDEX = new TrigramIndex();  //Narrows CONTAINS searches to candidate files
+    private static final TokenIndex TOKEN_INDEX = new TokenIndex();  //Narrows BEGINSWITH, and short CONTAINS, searches to candidate files
+    private static final SuffixIndex SUFFIX_INDEX = new SuffixIndex();  //Narrows ENDSWITH searches to candidate files
     private IntUnaryOperator operator = ((a) -> {
         //Sorts the contents of clq in ascending order
         //and returns a value to which AtomicInteger ai is set
         final Integer[] array = clq.toArray(new Integer[clq.size()]);  //An array of the contents of clq
         final int size = array.length;
+        Arrays.sort(array);
         ArrayList<Integer> indices = null;
         if (FileMedia.runValue) {
             indices = new ArrayList<>();
             indices.ensureCapacity(size);
         }
-        final LinkedList<File> files = new LinkedList<>();
+        final PlayList files = new PlayList();
         boolean got = false;
         int updateInt = 0;
         //Loop through clq contents
         for (int i = 0; i < size; i++) {
-            int lessNum =array[i];
-            //An inner loop
-            for (int j = i+1; j < size; j++) {
-                int highNum = array[j];
-                //Compare lessNum and highNum
-                if (lessNum > highNum) {
-                    //Swap positions
-                    array[j] = lessNum;
-                    lessNum = highNum;
-                }
-            }
+            int lessNum = array[i];
             files.add(linkedList.get(lessNum));
             if (indices != null)
                 indices.add(lessNum);
@@ -94,7 +89,7 @@ class PlayListSearchAction extends RecursiveAction {
         return (got)? updateInt: ai.intValue();
     });
 
-    PlayListSearchAction(LinkedList<File> linkedList, boolean[] boolArray, String[] stringArray, String searchString, int start, int end) {
+    PlayListSearchAction(PlayList linkedList, boolean[] boolArray, String[] stringArray, String searchString, int start, int end) {
         this.linkedList = linkedList;
         this.boolArray = boolArray;  //Holds boolean values of string comparison outcome
         this.stringArray = stringArray;  //Holds the strings to be compared
@@ -123,53 +118,115 @@ class PlayListSearchAction extends RecursiveAction {
         sortedFiles = null;
     }
 
+    /**Matches a string against a search string,
+    *word by word, with the search string consumed across consecutive words of the string.
+    *@param string
+    *the string to search, such as a file name
+    *@param searchString
+    *the letters and digits sought for
+    *@param filter
+    *the search parameter
+    *@return true if the string matches, and false otherwise
+    */
+    static boolean matches(String string, String searchString, FileFilter filter) {
+        boolean match = false;
+        String delimiters = Utility.eliminateCharacters(string, ((i) -> i == '\'' || Character.isLetterOrDigit(i)));
+        //Get a string token of the string
+        StringTokenizer stringToken = new StringTokenizer(string, delimiters);
+        int k = 0;
+        boolean pass = false;
+        //An inner while loop
+        //to cycle through the various tokens
+        while (stringToken.hasMoreTokens()) {
+            string = stringToken.nextToken();
+            if (string.contains("\'"))  //If the string contains apostrophe (')
+                //Obtain only the letters and numbers
+                string = Utility.retainLettersAndDigits(string);
+            //Ascertain the appropriate length for both strings (searchString and string)
+            int length = (string.length() <= searchString.substring(k).length())? string.length(): searchString.substring(k).length();
+            if (string.substring(0,length).equalsIgnoreCase(searchString.substring(k, k+length))) {  //If the respective length-range characters in both strings are equal
+                match = true;
+                k += length;  //The point at which subsequent comparison is to begin
+                //If all searchString characters are already exhausted, however
+                if (k >= searchString.length() && filter != FileFilter.ENDSWITH)
+                    //Terminate the loop
+                    break;
+                if (k >= searchString.length() && filter == FileFilter.ENDSWITH) {  //If matches are to be at the rear
+                    k = 0;  //Continue search
+                    pass = true;  //with pass reflecting the current state
+                }
+            }
+            else {  //If respective characters are not equal
+                match = false;
+                if (filter == FileFilter.BEGINSWITH)
+                    //Do nothing else
+                    break;  //Out of the inner while loop
+                if (filter == FileFilter.ENDSWITH && !stringToken.hasMoreTokens())
+                    match = pass;
+                //Else
+                //Revert the value of k to 0
+                k = 0;
+                pass = false;
+            }
+        }  //End of inner while loop
+        return match;
+    }
+
+    /**Searches the whole list through an index, in place of a scan of every file,
+    *if the search is for at least a letter or digit.
+    *CONTAINS searches for at least TrigramIndex.GRAM letters and digits are narrowed by the trigram index,
+    *ENDSWITH searches by the suffix index, and other searches by the token index.
+    *Candidates from each are verified with the same matcher a scan applies,
+    *so either finds the same matches.
+    *@return true if the search was carried out, and false if the list is to be scanned
+    */
+    boolean findIndexedMatch() {
+        if (searchString.isEmpty() || start != 0 || end != linkedList.size())
+            return false;
+        long time = System.currentTimeMillis();
+        int[] ids = linkedList.toIdArray();
+        BitSet candidates;
+        if (FILTER == FileFilter.ENDSWITH) {
+            SUFFIX_INDEX.index(ids);
+            candidates = SUFFIX_INDEX.candidates(searchString);
+        }
+        else if (FILTER == FileFilter.CONTAINS && searchString.length() >= TrigramIndex.GRAM) {
+            TRIGRAM_INDEX.index(ids);
+            candidates = TRIGRAM_INDEX.candidates(searchString);
+        }
+        else {
+            TOKEN_INDEX.index(ids);
+            candidates = TOKEN_INDEX.candidates(searchString, FILTER == FileFilter.BEGINSWITH);
+        }
+        int candidateCount = candidates.cardinality();
+        BitSet matched = new BitSet();  //Ids of verified candidates, so that a repeated file is verified once
+        for (int position = 0; position < ids.length; position++) {
+            int id = ids[position];
+            if (id < 0 || !candidates.get(id))
+                continue;
+            if (!matched.get(id)) {
+                String fileName = FileMedia.fileToString(FileRegistry.file(id));
+                if (!matches((FILTER == FileFilter.ENDSWITH)? endOf(fileName, searchString.length()): fileName, searchString, FILTER)) {
+                    candidates.clear(id);
+                    continue;
+                }
+                matched.set(id);
+            }
+            boolArray[position] = true;
+            if (linkedList.get(position).exists())
+                clq.add(position);
+        }
+        ai.getAndSet(operator.applyAsInt(0));
+        logger.info("Ended indexed search process over " + candidateCount + " candidates in " + (System.currentTimeMillis()-time) + " milliseconds");
+        return true;
+    }
+
     private void findMatch() {
         logger.info("Beginning search process between " + start + " " + end);
         long time = System.currentTimeMillis();
         int iLoop = start;
         while (iLoop < end) {
-            String previousString = null;
-            String string = stringArray[iLoop];
-            String delimiters = Utility.eliminateCharacters(string, ((i) -> i == '\'' || Character.isLetterOrDigit(i)));
-            //Get a string token of the retrieved stringArray
-            StringTokenizer stringToken = new StringTokenizer(string, delimiters);
-            int k = 0, l = 0;
-            boolean pass = false;
-            //An inner while loop
-            //to cycle through the various tokens
-            while (stringToken.hasMoreTokens()) {
-                string = stringToken.nextToken();
-                if (string.contains("\'"))  //If the string contains apostrophe (')
-                    //Obtain only the letters and numbers
-                    string = Utility.retainLettersAndDigits(string);
-                //Ascertain the appropriate length for both strings (searchString and string)
-                int length = (string.length() <= searchString.substring(k).length())? string.length(): searchString.substring(k).length();
-                l = k;
-                if (string.substring(0,length).equalsIgnoreCase(searchString.substring(k, k+length))) {  //If the respective length-range characters in both strings are equal
-                    boolArray[iLoop] = true;
-                    k += length;  //The point at which subsequent comparison is to begin
-                    //If all searchString characters are already exhausted, however
-                    if (k >= searchString.length() && FILTER != FileFilter.ENDSWITH)
-                        //Terminate the loop
-                        break;
-                    if (k >= searchString.length() && FILTER == FileFilter.ENDSWITH) {  //If matches are to be at the rear
-                        k = 0;  //Continue search
-                        pass = true;  //with pass reflecting the current state
-                    }
-                }
-                else {  //If respective characters are not equal
-                    boolArray[iLoop] = false;
-                    if (FILTER == FileFilter.BEGINSWITH)
-                        //Do nothing else
-                        break;  //Out of the inner while loop
-                    if (FILTER == FileFilter.ENDSWITH && !stringToken.hasMoreTokens())
-                        boolArray[iLoop] = pass;
-                    //Else
-                    //Revert the value of k to 0
-                    k = 0;
-                    pass = false;
-                }
-            }  //End of inner while loop
+            boolArray[iLoop] = matches(stringArray[iLoop], searchString, FILTER);
             if (boolArray[iLoop] && linkedList.get(iLoop).exists())
                 clq.add(iLoop);
             iLoop++;  //Iterate the outer while loop
@@ -179,6 +236,32 @@ class PlayListSearchAction extends RecursiveAction {
         logger.info("Ended search process between " + start + " " + end + " in " + (System.currentTimeMillis()-time) + " milliseconds");
     }
 
+    /**Gets the part of a file name an ENDSWITH search is matched against:
+    *the extension, (everything from the last symbol on),
+    *preceded by the trailing words, from the nearest symbol before which at least length characters lie.
+    *@param fileName
+    *the file name
+    *@param length
+    *the length of the search string
+    *@return the trailing part of the file name, or the whole of it, if too short
+    */
+    static String endOf(String fileName, int length) {
+        boolean discontinue = false;
+        int endLength = 0;  //The number of characters between the extension and the current position
+        //Loop through fileName characters backward
+        for (int i = fileName.length()-1; i >= 0; i--) {
+            char ch = fileName.charAt(i);
+            if (discontinue)
+                endLength++;
+            if (ch != '\'' && !Character.isLetterOrDigit(ch)) {
+                if (discontinue && endLength >= length)
+                    return fileName.substring(i);
+                discontinue = true;
+            }
+        }
+        return fileName;
+    }
+
     private void constructSearchArray() {
         logger.info("About to construct the search parameters with " + FileFilter.getDefaultFilter().toString() + " filter");
         long startTime = System.nanoTime();
@@ -187,29 +270,8 @@ class PlayListSearchAction extends RecursiveAction {
             String fileName = "";
             try {
                 fileName = FileMedia.fileToString(linkedList.get(j));
-                if (FileFilter.getDefaultFilter() == FileFilter.ENDSWITH) {
-                    String endString = "", extension = "";
-                    boolean discontinue = false;
-                    //We are going to retrieve the string at the end of each file name
-                    //by looping through fileName characters backward
-                    for (int i = fileName.length()-1; i >= 0; i--) {
-                        //Retrieve the character at index i
-                        char ch = fileName.charAt(i);
-                        if (!discontinue)
-                            //Append extension to the end of ch to maintain fileName character natural order
-                            extension = ch + extension;
-                        else
-                            //Append endString to the end of ch to maintain fileName character natural order
-                            endString = ch + endString;
-                        if (ch != '\'' && !Character.isLetterOrDigit(ch)) {
-                            if (discontinue && endString.length() >= searchString.length())
-                                break;
-                            discontinue = true;
-                        }
-                    }  //End of inner for-loop
-                    //Concactinate endString and extension, and assign to fileName
-                    fileName = endString + extension;
-                }
+                if (FileFilter.getDefaultFilter() == FileFilter.ENDSWITH)
+                    fileName = endOf(fileName, searchString.length());
             }
             catch (NullPointerException ex) {}
             stringArray[j] = fileName;
@@ -0,0 +1,148 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**A random permutation of the positions of a list,
+*drawn one position at a time, (a Fisher-Yates shuffle carried out step by step),
+*so that each draw takes constant time,
+*and a list is played in shuffled order without being reordered, or copied.
+*Drawn positions are kept in order of drawing, so that play can step back through them, and forth again,
+*and a position chosen out of turn is drawn at once, so that play carries on from it.
+*In smart mode, positions flagged as recently played are put off,
+*so that they're drawn, in random order, only once every other position is drawn.
+*Each position is put off at most once, so a draw still takes amortized constant time.
+*@author Ganiyu Emilandu
+*/
+
+final class ShuffleOrder {
+    private final int[] positions;  //Drawn positions, in order of drawing, followed by those yet to be drawn
+    private final int[] slots;  //Maps a position to its slot in positions
+    private final Random random;
+    private final IntPredicate recent;  //Flags recently played positions, or null if none are put off
+    private int drawn;  //The number of drawn positions
+    private int end;  //Positions from here on were put off, as recently played
+    private boolean puttingOff;  //Asserts that recently played positions are still put off
+    private int current = -1;  //The slot of the position last stepped to
+
+    /**Creates a new instance of this class.
+    *@param size
+    *the size of the list to shuffle
+    *@param random
+    *the source of randomness
+    *@param recent
+    *flags the positions of recently played files, or null if every position is equally likely
+    */
+    ShuffleOrder(int size, Random random, IntPredicate recent) {
+        positions = new int[size];
+        slots = new int[size];
+        for (int i = 0; i < size; i++)
+            positions[i] = slots[i] = i;
+        this.random = random;
+        this.recent = recent;
+        end = size;
+        puttingOff = recent != null;
+    }
+
+    /**Ascertains if any position follows the current one,
+    *either drawn already, or yet to be drawn.
+    *@return true if so, and false otherwise
+    */
+    boolean hasNext() {
+        return current + 1 < positions.length;
+    }
+
+    /**Steps to the next position,
+    *which is drawn, unless play stepped back from it.
+    *@return the position
+    *@throws NoSuchElementException
+    *if every position was drawn, and the current one is the last of them
+    */
+    int next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        if (current + 1 < drawn)
+            return positions[++current];
+        while (true) {
+            if (drawn == end) {
+                //Only positions put off are left, which are drawn as any other
+                end = positions.length;
+                puttingOff = false;
+            }
+            int pick = drawn + random.nextInt(end - drawn);
+            if (!puttingOff || !recent.test(positions[pick])) {
+                swap(drawn, pick);
+                current = drawn;
+                return positions[drawn++];
+            }
+            //Put the recently played position off, beyond the positions still drawn from
+            swap(pick, --end);
+        }
+    }
+
+    /**Ascertains if any position precedes the current one.
+    *@return true if so, and false otherwise
+    */
+    boolean hasPrevious() {
+        return current > 0;
+    }
+
+    /**Steps back to the position drawn before the current one.
+    *@return the position
+    *@throws NoSuchElementException
+    *if the current position was drawn first
+    */
+    int previous() {
+        if (!hasPrevious())
+            throw new NoSuchElementException();
+        return positions[--current];
+    }
+
+    /**Steps to a position, as when a file is chosen out of turn,
+    *drawing it at once if it's yet to be drawn.
+    *@param position
+    *the position
+    */
+    void select(int position) {
+        int slot = slots[position];
+        if (slot < drawn) {
+            current = slot;
+            return;
+        }
+        if (slot >= end) {
+            //Bring the position back among those still drawn from
+            swap(slot, end++);
+            slot = slots[position];
+        }
+        swap(drawn, slot);
+        current = drawn++;
+    }
+
+
+    private void swap(int i, int j) {
+        int position = positions[i];
+        positions[i] = positions[j];
+        positions[j] = position;
+        slots[positions[i]] = i;
+        slots[positions[j]] = j;
+    }
+}
@@ -0,0 +1,176 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**Narrows an ENDSWITH playlist search to the files which may match,
+*by a suffix array of file names, holding the suffixes which begin at a word.
+*A name is indexed by its words run together, as split and folded by TokenIndex.
+*An ENDSWITH search matches the trailing words of a name,
+*either consuming the search string from a word, or running out of words while consuming it,
+*so a name is a candidate if one of its suffixes begins with the search string, or is a head of it.
+*Both are found by binary search over the sorted suffixes, with no string built per name.
+*Like TrigramIndex, one index serves every playlist, and files are indexed when first searched.
+*@author Ganiyu Emilandu
+*/
+
+final class SuffixIndex {
+    private String[] names = new String[0];  //Maps an id to the words of its name, run together
+    private long[] suffixes = new long[0];  //(id, offset) pairs of the suffixes, in order of the suffixes
+    private int count;  //The number of suffixes
+    private final BitSet indexed = new BitSet();  //Ids of the indexed files
+
+    /**Indexes the files of a list which aren't already indexed.
+    *@param ids
+    *the FileRegistry ids of the files
+    */
+    synchronized void index(int[] ids) {
+        long[] added = new long[16];
+        int addedCount = 0;
+        for (int id: ids) {
+            if (id < 0 || indexed.get(id))
+                continue;
+            indexed.set(id);
+            File file = FileRegistry.file(id);
+            if (file == null)
+                continue;
+            String[] words = TokenIndex.tokens(FileMedia.fileToString(file));
+            if (id >= names.length)
+                names = Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+            names[id] = String.join("", words);
+            int offset = 0, previousOffset = -1;
+            for (String word: words) {
+                if (offset != previousOffset) {
+                    if (addedCount == added.length)
+                        added = Arrays.copyOf(added, addedCount * 2);
+                    added[addedCount++] = pair(id, offset);
+                    previousOffset = offset;
+                }
+                offset += word.length();
+            }
+        }
+        if (addedCount == 0)
+            return;
+        Long[] sorted = new Long[addedCount];
+        for (int i = 0; i < addedCount; i++)
+            sorted[i] = added[i];
+        Arrays.sort(sorted, (a, b) -> compare(a, b));
+        merge(sorted);
+    }
+
+
+    //Merges sorted suffixes into the suffix array
+    private void merge(Long[] sorted) {
+        long[] merged = new long[count + sorted.length];
+        int i = 0, j = 0, k = 0;
+        while (i < count && j < sorted.length)
+            merged[k++] = (compare(suffixes[i], sorted[j]) <= 0)? suffixes[i++]: sorted[j++];
+        while (i < count)
+            merged[k++] = suffixes[i++];
+        while (j < sorted.length)
+            merged[k++] = sorted[j++];
+        suffixes = merged;
+        count = merged.length;
+    }
+
+    /**Gets the files which may match an ENDSWITH search.
+    *Every match is among them, but not every candidate matches.
+    *@param searchString
+    *the letters and digits sought for
+    *@return the FileRegistry ids of the candidates
+    */
+    synchronized BitSet candidates(String searchString) {
+        StringBuilder sb = new StringBuilder(searchString.length());
+        for (int i = 0; i < searchString.length(); i++)
+            sb.append(TokenIndex.fold(searchString.charAt(i)));
+        String query = sb.toString();
+        BitSet candidates = new BitSet();
+        //Suffixes which begin with the search string
+        for (int i = lowerBound(query); i < count && startsWith(suffixes[i], query); i++)
+            candidates.set(id(suffixes[i]));
+        //Suffixes which are heads of the search string, the empty suffix of a trailing apostrophe included
+        for (int length = 0; length < query.length(); length++) {
+            String head = query.substring(0, length);
+            for (int i = lowerBound(head); i < count && compare(suffixes[i], head) == 0; i++)
+                candidates.set(id(suffixes[i]));
+        }
+        return candidates;
+    }
+
+
+    private static long pair(int id, int offset) {
+        return ((long) id << 32) | offset;
+    }
+
+
+    private static int id(long suffix) {
+        return (int) (suffix >>> 32);
+    }
+
+
+    private static int offset(long suffix) {
+        return (int) suffix;
+    }
+
+
+    private boolean startsWith(long suffix, String key) {
+        return names[id(suffix)].startsWith(key, offset(suffix));
+    }
+
+
+    //Gets the position of the first suffix not less than a key
+    private int lowerBound(String key) {
+        int low = 0, high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(suffixes[middle], key) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+
+    private int compare(long suffix, String key) {
+        String name = names[id(suffix)];
+        int offset = offset(suffix), length = Math.min(name.length() - offset, key.length());
+        for (int i = 0; i < length; i++) {
+            char a = name.charAt(offset + i), b = key.charAt(i);
+            if (a != b)
+                return a - b;
+        }
+        return (name.length() - offset) - key.length();
+    }
+
+
+    private int compare(long x, long y) {
+        String a = names[id(x)], b = names[id(y)];
+        int i = offset(x), j = offset(y);
+        while (i < a.length() && j < b.length()) {
+            char p = a.charAt(i++), q = b.charAt(j++);
+            if (p != q)
+                return p - q;
+        }
+        return (a.length() - i) - (b.length() - j);
+    }
+}
@@ -0,0 +1,174 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeMap;
+
+/**Narrows a playlist search to the files which may match,
+*by a sorted dictionary of the words of file names,
+*mapping each word to the positions it holds, as (FileRegistry id, word position) pairs.
+*Words are split as PlayListSearchAction.matches splits them,
+*(runs of letters, digits and apostrophes, with apostrophes then dropped), and compared regardless of case.
+*A match begins at a word which is either a head of the search string, or begins with the whole of it,
+*so each such word is looked up, (the former exactly, and the latter as a range of the dictionary),
+*and is followed through the words after it, until the search string is consumed or a word fails to match.
+*Words of names are kept by id, so that following a word costs no tokenizing.
+*Like TrigramIndex, one index serves every playlist, and files are indexed when first searched.
+*@author Ganiyu Emilandu
+*/
+
+final class TokenIndex {
+    private final TreeMap<String, Postings> dictionary = new TreeMap<>();  //Maps a word to the (id, position) pairs it's found at
+    private String[][] tokens = new String[0][];  //Maps an id to the words of its name
+    private final BitSet indexed = new BitSet();  //Ids of the indexed files
+
+    /**Indexes the files of a list which aren't already indexed.
+    *@param ids
+    *the FileRegistry ids of the files
+    */
+    synchronized void index(int[] ids) {
+        for (int id: ids) {
+            if (id < 0 || indexed.get(id))
+                continue;
+            indexed.set(id);
+            File file = FileRegistry.file(id);
+            if (file == null)
+                continue;
+            String[] words = tokens(FileMedia.fileToString(file));
+            if (id >= tokens.length)
+                tokens = Arrays.copyOf(tokens, Math.max(id + 1, tokens.length * 2));
+            tokens[id] = words;
+            for (int position = 0; position < words.length; position++)
+                dictionary.computeIfAbsent(words[position], (key) -> new Postings()).add(id, position);
+        }
+    }
+
+    /**Gets the files which may match a search string.
+    *Every match is among them, but not every candidate matches.
+    *@param searchString
+    *the letters and digits sought for, at least one of them
+    *@param leading
+    *true if matches are to begin at the first word of a name, as BEGINSWITH searches require
+    *@return the FileRegistry ids of the candidates
+    */
+    synchronized BitSet candidates(String searchString, boolean leading) {
+        StringBuilder sb = new StringBuilder(searchString.length());
+        for (int i = 0; i < searchString.length(); i++)
+            sb.append(fold(searchString.charAt(i)));
+        String query = sb.toString();
+        BitSet candidates = new BitSet();
+        //Words which are heads of the search string, the empty word, which matches anywhere, included
+        for (int length = 0; length < query.length(); length++) {
+            Postings postings = dictionary.get(query.substring(0, length));
+            if (postings != null)
+                follow(postings, query, leading, candidates);
+        }
+        //Words which begin with the whole search string
+        for (Postings postings: dictionary.subMap(query, true, query + Character.MAX_VALUE, true).values())
+            follow(postings, query, leading, candidates);
+        return candidates;
+    }
+
+
+    //Marks the files in which the search string runs from a word, found at the given postings
+    private void follow(Postings postings, String query, boolean leading, BitSet candidates) {
+        for (int i = 0; i < postings.size; i++) {
+            int id = postings.ids[i], position = postings.positions[i];
+            if (leading && position != 0 || candidates.get(id))
+                continue;
+            if (runs(tokens[id], position, query))
+                candidates.set(id);
+        }
+    }
+
+
+    //Ascertains if the search string is consumed by the words from a position,
+    //or if every word from it matches, and the words run out first
+    private static boolean runs(String[] words, int position, String query) {
+        int k = 0;
+        for (int i = position; i < words.length; i++) {
+            String word = words[i];
+            int length = Math.min(word.length(), query.length() - k);
+            if (!word.regionMatches(0, query, k, length))
+                return false;
+            k += length;
+            if (k >= query.length())
+                return true;
+        }
+        return true;
+    }
+
+    /**Splits a name into words, as PlayListSearchAction.matches does,
+    *with each character folded by fold().
+    *@param name
+    *the name, such as a file name
+    *@return the words
+    */
+    static String[] tokens(String name) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = null;
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (ch == '\'' || Character.isLetterOrDigit(ch)) {
+                if (word == null)
+                    word = new StringBuilder();
+                if (ch != '\'')  //An apostrophe belongs to its word, but isn't compared
+                    word.append(fold(ch));
+            }
+            else if (word != null) {
+                words.add(word.toString());
+                word = null;
+            }
+        }
+        if (word != null)
+            words.add(word.toString());
+        return words.toArray(new String[words.size()]);
+    }
+
+    /**Folds a character to the form shared by every case of it,
+    *so that folded strings are equal exactly when String.equalsIgnoreCase finds them equal.
+    *@param ch
+    *the character
+    *@return the folded character
+    */
+    static char fold(char ch) {
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+
+    //A growable list of (id, position) pairs
+    private static final class Postings {
+        int[] ids = new int[2], positions = new int[2];
+        int size;
+
+        void add(int id, int position) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            ids[size] = id;
+            positions[size++] = position;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**Narrows a CONTAINS playlist search to the files which may match,
+*by posting lists of the trigrams of file names, keyed by FileRegistry id.
+*A name is indexed by its words run together, (the letters and digits of each, compared regardless of case),
+*so that a search string, which may span several words, matches only names holding each of its trigrams.
+*A name whose trailing words match the head of a search string is also reported as a match,
+*so names are grouped by their last word as well,
+*and a name is a candidate if its last word occurs anywhere in the search string.
+*File names don't change with the lists that hold them, so one index serves every playlist:
+*files added to a list are indexed when first searched,
+*and files removed from a list are dropped by the caller, which checks candidates against the list.
+*@author Ganiyu Emilandu
+*/
+
+final class TrigramIndex {
+    static final int GRAM = 3;  //The length of an indexed character sequence
+    private final Map<Long, Postings> trigrams = new HashMap<>();  //Maps a packed trigram to the ids of the names holding it
+    private final Map<String, Postings> lastWords = new HashMap<>();  //Maps a last word to the ids of the names ending in it
+    private final BitSet indexed = new BitSet();  //Ids of the indexed files
+
+    /**Indexes the files of a list which aren't already indexed.
+    *@param ids
+    *the FileRegistry ids of the files
+    */
+    synchronized void index(int[] ids) {
+        int[] pending = Arrays.stream(ids).filter((id) -> id >= 0 && !indexed.get(id)).distinct().sorted().toArray();
+        for (int id: pending) {
+            indexed.set(id);
+            File file = FileRegistry.file(id);
+            if (file != null)
+                index(id, FileMedia.fileToString(file));
+        }
+    }
+
+
+    private void index(int id, String name) {
+        String[] tokens = TokenIndex.tokens(name);
+        String words = String.join("", tokens);
+        for (int i = 0; i + GRAM <= words.length(); i++)
+            trigrams.computeIfAbsent(trigram(words, i), (key) -> new Postings()).add(id);
+        if (tokens.length > 0)
+            lastWords.computeIfAbsent(tokens[tokens.length - 1], (key) -> new Postings()).add(id);
+    }
+
+    /**Gets the files which may match a search string.
+    *Every match is among them, but not every candidate matches.
+    *@param searchString
+    *the letters and digits sought for, at least GRAM of them
+    *@return the FileRegistry ids of the candidates
+    */
+    synchronized BitSet candidates(String searchString) {
+        StringBuilder query = new StringBuilder(searchString.length());
+        for (int i = 0; i < searchString.length(); i++)
+            query.append(TokenIndex.fold(searchString.charAt(i)));
+        BitSet candidates = new BitSet();
+        //Names holding the whole search string, within or across words
+        Postings[] lists = new Postings[query.length() - GRAM + 1];
+        boolean found = true;
+        for (int i = 0; i < lists.length && found; i++)
+            found = (lists[i] = trigrams.get(trigram(query, i))) != null;
+        if (found) {
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            Postings shortest = lists[0].sorted();
+            for (int i = 0; i < shortest.size; i++) {
+                int id = shortest.ids[i];
+                boolean all = true;
+                for (int j = 1; j < lists.length && all; j++)
+                    all = lists[j].sorted().contains(id);
+                if (all)
+                    candidates.set(id);
+            }
+        }
+        //Names whose trailing words match the head of the search string
+        String folded = query.toString();
+        for (Map.Entry<String, Postings> entry: lastWords.entrySet())
+            if (folded.contains(entry.getKey()))
+                entry.getValue().addTo(candidates);
+        return candidates;
+    }
+
+
+    private static long trigram(CharSequence sequence, int index) {
+        return ((long) sequence.charAt(index) << 32) | ((long) sequence.charAt(index + 1) << 16) | sequence.charAt(index + 2);
+    }
+
+
+    //A growable list of ids, sorted on demand
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+        boolean sorted = true;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id)
+                return;  //The trigram recurs in the same name
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            sorted &= size == 0 || ids[size - 1] < id;
+            ids[size++] = id;
+        }
+
+        Postings sorted() {
+            if (!sorted) {
+                Arrays.sort(ids, 0, size);
+                int distinct = 0;
+                for (int i = 0; i < size; i++)
+                    if (distinct == 0 || ids[distinct - 1] != ids[i])
+                        ids[distinct++] = ids[i];
+                size = distinct;
+                sorted = true;
+            }
+            return this;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void addTo(BitSet set) {
+            for (int i = 0; i < size; i++)
+                set.set(ids[i]);
+        }
+    }
+}
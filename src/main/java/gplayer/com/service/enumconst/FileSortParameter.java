@@ -31,7 +31,17 @@ public enum FileSortParameter {
     /**Flags alphabetical/numberic ordering from top to bottom.*/
     DESCENDING,
     /**Flags random ordering of elements.*/
-    SHUFFLE;
+    SHUFFLE,
+    /**Flags ordering by file size, from largest to smallest.*/
+    SIZE,
+    /**Flags ordering by last modified time, from latest to earliest.*/
+    LAST_MODIFIED,
+    /**Flags ordering by play count, from most played to least played.*/
+    PLAY_COUNT,
+    /**Flags ordering by last played time, from latest to earliest.*/
+    LAST_PLAYED,
+    /**Flags ordering by media duration, from longest to shortest.*/
+    DURATION;
     /**References current parameter.*/
     static FileSortParameter PARAMETER;
     /**References prior parameter.*/
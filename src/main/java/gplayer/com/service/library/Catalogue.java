@@ -18,10 +18,10 @@
 
 package gplayer.com.service.library;
 
+import gplayer.com.service.PlayList;
 import static gplayer.com.util.Utility.ofEqualContent;
 import java.io.File;
 import java.nio.file.Path;
-import java.util.LinkedList;
 
 /**Outlines a framework for cataloging a TreeItem
 *within a TreeView of TreeItem<Path> objects.
@@ -38,9 +38,9 @@ interface Catalogue {
     /**Returns a String encapsulating the name of the farthest path from the root of this tree item path.*/
     public String getName();
     /**Returns a list of all leaf TreeItem paths of this tree item direct/immediate descent.*/
-    public LinkedList<File> getPlaylist();
+    public PlayList getPlaylist();
     /**Returns a list of all leaf TreeItem paths of this tree item descent.*/
-    public LinkedList<File> getAllPlaylists();
+    public PlayList getAllPlaylists();
     /**Initiates playlist playback.*/
     public void playPlaylist();
     /**Indicates if the children of this tree item (if not a leaf) has been called at least once.*/
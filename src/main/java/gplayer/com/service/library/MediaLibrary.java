@@ -20,6 +20,7 @@ package gplayer.com.service.library;
 
 import gplayer.com.exec.GPlayer;
 import gplayer.com.service.FileMedia;
+import gplayer.com.service.PlayList;
 import gplayer.com.service.library.FileManager.FileAction;
 import gplayer.com.util.DataSearch;
 import static gplayer.com.util.Utility.trimLeadingCharacter;
@@ -31,7 +32,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -71,7 +71,7 @@ public class MediaLibrary extends gplayer.com.util.PopupStage {
     static final gplayer.com.lang.BaseResourcePacket resource = GPlayer.getResourcePacket();
     private static FileSystemView fileSystemView = FileSystemView.getFileSystemView();
     private gplayer.com.util.SerialTaskExecutor libraryUpdater = new gplayer.com.util.SerialTaskExecutor();
-    private final LinkedList<File> ALL_PLAYLISTS = new LinkedList<>();
+    private final PlayList ALL_PLAYLISTS = new PlayList();
     private ObservableList<TreeItem<Path>> expandedItems = FXCollections.observableArrayList();
     private DataSearch<TreeItem<Path>> expandedItemsSearch = new DataSearch<>(expandedItems, (expandedItem -> resolvePathName(expandedItem.getValue())));
     private Set<TreeItem<Path>> checkedItems = new HashSet<>(), checkedItemsTempStorage = new HashSet<>();  //For storing checked items
@@ -714,17 +714,17 @@ public class MediaLibrary extends gplayer.com.util.PopupStage {
         }
     }
 
-    private LinkedList<File> getPlaylist(TreeItem<Path> item) {
+    private PlayList getPlaylist(TreeItem<Path> item) {
         try {
             Catalogue cat = (Catalogue) item;
             return cat.getPlaylist();
         }
         catch (Exception ex) {
-            return new LinkedList<>();
+            return new PlayList();
         }
     }
 
-    private LinkedList<File> getAllPlaylists(TreeItem<Path> item) {
+    private PlayList getAllPlaylists(TreeItem<Path> item) {
         try {
             Catalogue cat = (Catalogue) item;
             return cat.getAllPlaylists();
@@ -733,7 +733,7 @@ public class MediaLibrary extends gplayer.com.util.PopupStage {
             return getAllPlaylists(tree.getRoot().getChildren().get(0));
         }
         catch (Exception ex) {
-            return new LinkedList<>();
+            return new PlayList();
         }
     }
 
@@ -18,11 +18,11 @@
 
 package gplayer.com.service.library;
 
+import gplayer.com.service.PlayList;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.LinkedList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -45,8 +45,8 @@ abstract class PlaylistCatalogue extends CheckBoxTreeItem<Path> implements Catal
     private static char separator = File.separatorChar;
     private Path pathChain;
     int index;
-    private LinkedList<File> playlist = new LinkedList<>();
-    private LinkedList<File> allPlaylists = new LinkedList<>();
+    private PlayList playlist = new PlayList();
+    private PlayList allPlaylists = new PlayList();
 
     /**Constructor
     *@param path
@@ -84,7 +84,7 @@ abstract class PlaylistCatalogue extends CheckBoxTreeItem<Path> implements Catal
     }
 
     @Override
-    public LinkedList<File> getPlaylist() {
+    public PlayList getPlaylist() {
         if (firstTimeChildren) {
             java.util.List<File> list = gplayer.com.service.FileMedia.enlist(getChildren(), ((child) -> MediaLibrary.isValidPath(child.getValue())), ((child) -> child.getValue().toFile()));
             playlist.addAll(list);
@@ -93,7 +93,7 @@ abstract class PlaylistCatalogue extends CheckBoxTreeItem<Path> implements Catal
     }
 
     @Override
-    public LinkedList<File> getAllPlaylists() {
+    public PlayList getAllPlaylists() {
         if (firstTimeList) {
             firstTimeList = false;
             allPlaylists.addAll(getPlaylist());
@@ -101,7 +101,7 @@ abstract class PlaylistCatalogue extends CheckBoxTreeItem<Path> implements Catal
                 PlaylistCatalogue pc = (PlaylistCatalogue) item;
                 if (!pc.isLeaf() && pc.traverseChildContents(index)) {
                     if (pc.index != pc.getMap().size() || !(pc.getName().equals(MediaLibrary.libraryContent[0]) || pc.getName().equals(MediaLibrary.libraryContent[1]))) {
-                        LinkedList<File> ll = pc.getAllPlaylists();
+                        PlayList ll = pc.getAllPlaylists();
                         allPlaylists.addAll(gplayer.com.service.FileMedia.uniqueElements(allPlaylists, ll));
                     }
                 }
@@ -155,11 +155,11 @@ abstract class PlaylistCatalogue extends CheckBoxTreeItem<Path> implements Catal
         });
     }
 
-    void playPlaylist(LinkedList<File> ll, String name, boolean allowEmptyPlaylist) {
+    void playPlaylist(PlayList ll, String name, boolean allowEmptyPlaylist) {
         runLater(() -> gplayer.com.exec.GPlayer.getSceneRoot().transitionAppPlayList(ll, name, allowEmptyPlaylist));
     }
 
-    void playPlaylist(LinkedList<File> ll, String name, int index, boolean allowEmptyPlaylist) {
+    void playPlaylist(PlayList ll, String name, int index, boolean allowEmptyPlaylist) {
         runLater(() -> gplayer.com.exec.GPlayer.getSceneRoot().transitionUserPlayList(ll, name, index, allowEmptyPlaylist));
     }
 
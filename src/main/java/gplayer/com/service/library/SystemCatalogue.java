@@ -18,11 +18,11 @@
 
 package gplayer.com.service.library;
 
+import gplayer.com.service.PlayList;
 import gplayer.com.service.enumconst.FileOpenOption;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.LinkedList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,8 +41,8 @@ class SystemCatalogue extends CheckBoxTreeItem<Path> implements Catalogue {
     private boolean firstTimeLeaf = true;
     private boolean firstTimeChildren = true;
     private boolean firstTimeList = true;
-    private LinkedList<File> playlist = new LinkedList<>();
-    private LinkedList<File> allPlaylists = new LinkedList<>();
+    private PlayList playlist = new PlayList();
+    private PlayList allPlaylists = new PlayList();
 
     /**Constructor
     *@param path
@@ -72,14 +72,14 @@ class SystemCatalogue extends CheckBoxTreeItem<Path> implements Catalogue {
     }
 
     @Override
-    public LinkedList<File> getPlaylist() {
+    public PlayList getPlaylist() {
         if (firstTimeChildren)
             getChildren();
         return playlist;
     }
 
     @Override
-    public LinkedList<File> getAllPlaylists() {
+    public PlayList getAllPlaylists() {
         if (firstTimeList) {
             firstTimeList = false;
             if (!isLeaf()) {
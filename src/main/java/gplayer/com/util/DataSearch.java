@@ -19,9 +19,14 @@
 package gplayer.com.util;
 
 import java.io.File;
+import java.text.Normalizer;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.function.Function;
-import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import static java.util.regex.Pattern.compile;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -31,6 +36,9 @@ import javafx.concurrent.Service;
 import javafx.concurrent.Task;
 
 /**Conducts concurrent search process on an array of strings.
+*The strings are held normalized, (in NFKC form, and lowercased), and are refreshed only when the source data changes,
+*so that a search string, normalized alike, is matched literally, with no per-search conversion of the data.
+*Search strings are matched as regular expressions only if opted for.
 *@param <T>
 *the type of objects from which the search array of strings will be constructed.
 *@author Ganiyu Emilandu
@@ -40,14 +48,17 @@ public class DataSearch<T> extends Service<Integer> {
     private static Runtime runtime = Runtime.getRuntime();  //References the Java runtime
     private DataSearchTask searchTask;  //Initialized to execute search proceedings
     private IntegerProperty matchIndex = new SimpleIntegerProperty(this, "matchIndex");  //Updated to reflect the match discovered on every execution
-    private String[] data;  //References the array on which searches can be carried out
+    private String[] data;  //References the array on which searches can be carried out, with each string normalized
     private ObservableList<T> sourceData = javafx.collections.FXCollections.observableArrayList();  //Updates/refreshes the search array relative to its content
     private final StringBuffer SEARCH_BUFFER = new StringBuffer();  //Holds the strings to search for in the data array
     private int averageWorkLoad = 0;  //The average workload for each concurrent task
     private int start, end;  //Lower and upper boundaries of data search
-    private static long permissibleTimeDifference = 1500;  //Time interval to precipitate reset of SEARCH_BUFFER content, after it must have been exhausted
+    private static final long DEFAULT_TIMEOUT = 1500;  //The default value of permissibleTimeDifference
+    private long permissibleTimeDifference = DEFAULT_TIMEOUT;  //Time interval to precipitate reset of SEARCH_BUFFER content, after it must have been exhausted
+    private volatile Narrowing narrowing;  //The matches of the last complete search, to which searches for extensions of its search string are confined
     private volatile long lastSearchTime = 0;  //Records every search process execution
     private boolean allowLeadingSpaces;  //Flags if spaces can be allowed at the start of a search string
+    private volatile boolean regularExpressions;  //Flags if search strings are matched as regular expressions, rather than literally
     private volatile boolean runOnce = false;  //Indicates if a task has been executed at least once
 
     /**Creates a new instance of this class.
@@ -55,7 +66,7 @@ public class DataSearch<T> extends Service<Integer> {
     *the collection of elements cached in the data deployed during search proceedings.
     */
     public DataSearch(Collection<? extends T> data) {
-        this(data, null, permissibleTimeDifference);
+        this(data, null, DEFAULT_TIMEOUT);
     }
 
     /**Creates a new instance of this class.
@@ -65,7 +76,7 @@ public class DataSearch<T> extends Service<Integer> {
     *String translation  of collection elements.
     */
     public DataSearch(Collection<? extends T> data, Function<T, String> converter) {
-        this(data, converter, permissibleTimeDifference);
+        this(data, converter, DEFAULT_TIMEOUT);
     }
 
     /**Creates a new instance of this class.
@@ -89,7 +100,7 @@ public class DataSearch<T> extends Service<Integer> {
     */
     @SafeVarargs
     public DataSearch(T... data) {
-        this(data, null, permissibleTimeDifference);
+        this(data, null, DEFAULT_TIMEOUT);
     }
 
     /**Creates a new instance of this class.
@@ -99,7 +110,7 @@ public class DataSearch<T> extends Service<Integer> {
     *String translation  of array elements.
     */
     public DataSearch(T[] data, Function<T, String> converter) {
-        this(data, converter, permissibleTimeDifference);
+        this(data, converter, DEFAULT_TIMEOUT);
     }
 
     /**Creates a new instance of this class.
@@ -124,12 +135,10 @@ public class DataSearch<T> extends Service<Integer> {
     */
     private String[] collateData(T[] array, Function<T, String> converter) {
         Function<T, String> nonNullConverter = (converter != null)? converter: ((object) -> object.toString());
-        if (converter == null && array instanceof String[])
-            return (String[]) array;
         int length = array.length;
         String[] data = new String[length];
         for (int index = 0; index < length; index++)
-            data[index] = nonNullConverter.apply(array[index]);
+            data[index] = normalize(nonNullConverter.apply(array[index]));
         return data;
     }
 
@@ -149,11 +158,64 @@ public class DataSearch<T> extends Service<Integer> {
     private void initialize(String[] data, long searchTimeout, Function<T, String> converter) {
         initialize(data);
         permissibleTimeDifference = searchTimeout;
-        sourceData.addListener((ListChangeListener.Change<? extends T> c) -> initialize(collateData(sourceData, converter)));
+        Function<T, String> nonNullConverter = (converter != null)? converter: ((object) -> object.toString());
+        Function<T, String> normalizingConverter = nonNullConverter.andThen(DataSearch::normalize);
+        sourceData.addListener((ListChangeListener.Change<? extends T> c) -> initialize(applyChange(this.data, c, normalizingConverter)));
+    }
+
+    /**Applies a change of the source data to the search array,
+    *converting only the elements added or updated,
+    *so that a small change of a large source costs no more than a copy of the array.
+    *The array isn't modified in place, as a search may be in progress on it.
+    *@param data
+    *the search array, as it mirrors the source data before the change
+    *@param c
+    *the change
+    *@param converter
+    *normalized String translation of source data elements.
+    *@return the search array, as it mirrors the source data after the change
+    */
+    private String[] applyChange(String[] data, ListChangeListener.Change<? extends T> c, Function<T, String> converter) {
+        while (c.next()) {
+            if (c.wasPermutated()) {
+                String[] permuted = data.clone();
+                for (int index = c.getFrom(); index < c.getTo(); index++)
+                    permuted[c.getPermutation(index)] = data[index];
+                data = permuted;
+            }
+            else if (c.wasUpdated()) {
+                data = data.clone();
+                for (int index = c.getFrom(); index < c.getTo(); index++)
+                    data[index] = converter.apply(c.getList().get(index));
+            }
+            else {
+                int from = c.getFrom(), removed = c.getRemovedSize(), added = c.getAddedSize();
+                String[] spliced = new String[data.length - removed + added];
+                System.arraycopy(data, 0, spliced, 0, from);
+                List<? extends T> addedElements = c.getAddedSubList();
+                for (int index = 0; index < added; index++)
+                    spliced[from + index] = converter.apply(addedElements.get(index));
+                System.arraycopy(data, from + removed, spliced, from + added, data.length - from - removed);
+                data = spliced;
+            }
+        }
+        return data;
+    }
+
+    /**Normalizes a string for matching:
+    *composed into NFKC form, so that equivalent sequences of characters are alike,
+    *and lowercased, so that matches disregard case.
+    *@param string
+    *the string to normalize
+    *@return the normalized string
+    */
+    private static String normalize(String string) {
+        return Normalizer.normalize(string, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
     }
 
     private void initialize(String[] data) {
         this.data = data;
+        narrowing = null;
         averageWorkLoad = averageWorkLoad(data.length);
     }
 
@@ -208,11 +270,23 @@ public class DataSearch<T> extends Service<Integer> {
         allowLeadingSpaces = allow;
     }
 
+    /**Indicates if search strings are to be matched as regular expressions,
+    *rather than literally, as they are by default.
+    *A search string which isn't a valid regular expression then matches nothing.
+    *@param use
+    *true if search strings are to be matched as regular expressions
+    */
+    public final void useRegularExpressions(boolean use) {
+        regularExpressions = use;
+    }
+
     private void setSearchParameters(int start, int end, int searchBufferLength) {
         this.start = Math.min(start, end);
         this.end = Math.max(start, end);
-        if (searchBufferLength > 0)
+        if (searchBufferLength > 0) {
             SEARCH_BUFFER.delete(0, searchBufferLength);
+            narrowing = null;
+        }
     }
 
     private void initializeSearch(CharSequence searchBuffer, int start, int end) {
@@ -289,18 +363,84 @@ public class DataSearch<T> extends Service<Integer> {
     */
     private int findMatch() {
         int matchIndex = -1;
-        String searchString = SEARCH_BUFFER.toString().toLowerCase();
+        String searchString = normalize(SEARCH_BUFFER.toString());
+        String[] data = this.data;
         if (data == null || data.length == 0 || searchString.isEmpty())
             return matchIndex;
-        try {
-            searchTask = new DataSearchTask(data, compile(searchString), start-1, start, end, averageWorkLoad);
-            gplayer.com.util.Duo<Integer, Matcher> d = searchTask.invoke();
+        boolean literal = !regularExpressions;
+        Pattern pattern = null;
+        if (!literal) {
+            try {
+                pattern = compile(searchString);
+            }
+            catch (PatternSyntaxException ex) {
+                return matchIndex;
+            }
+        }
+        Narrowing narrowing = this.narrowing;
+        //A string holding an extension of a literal search string holds the search string too
+        if (literal && narrowing != null && narrowing.data == data && searchString.startsWith(narrowing.searchString))
+            return findNarrowedMatch(narrowing.indices, data, searchString);
+        //Only a complete search of the whole data can narrow later searches
+        boolean[] matches = (literal && end - start >= data.length)? new boolean[data.length]: null;
+        DataSearchTask searchTask = this.searchTask = new DataSearchTask(data, (literal)? searchString: null, pattern, start-1, start, end, averageWorkLoad, matches);
+        gplayer.com.util.Duo<Integer, Integer> d = searchTask.invoke();
+        if (matches != null && !searchTask.isCancelled())
+            this.narrowing = new Narrowing(data, searchString, indicesOf(matches));
+        if (d != null)
             matchIndex = d.getKey();
+        return matchIndex;
+    }
+
+    /**Executes a search process on the entries which matched an earlier search,
+    *whose search string the current search string extends,
+    *finding the same match a search of the whole data would:
+    *the one matched nearest the start of its string,
+    *and of those, the first reached from start.
+    *@param indices
+    *the indices of the entries which matched the earlier search, in ascending order
+    *@param data
+    *the search array
+    *@param searchString
+    *the search string, matched literally
+    *@return a number between 0 and length of data if a match is found,
+    *and -1 otherwise.
+    */
+    private int findNarrowedMatch(int[] indices, String[] data, String searchString) {
+        int length = data.length, matchIndex = -1, matchStart = Integer.MAX_VALUE, matchOrder = Integer.MAX_VALUE;
+        int[] matches = new int[indices.length];
+        int count = 0;
+        for (int index: indices) {
+            int position = data[index].indexOf(searchString);
+            if (position < 0)
+                continue;
+            matches[count++] = index;
+            //The position of the entry in the search range, which wraps round the end of the data
+            int order = (index >= start && index < end)? index - start: (index + length >= start && index + length < end)? index + length - start: -1;
+            if (order >= 0 && (position < matchStart || position == matchStart && order < matchOrder)) {
+                matchIndex = index;
+                matchStart = position;
+                matchOrder = order;
+            }
         }
-        catch (Exception ex) {}
+        narrowing = new Narrowing(data, searchString, Arrays.copyOf(matches, count));
         return matchIndex;
     }
 
+
+    private static int[] indicesOf(boolean[] matches) {
+        int count = 0;
+        for (boolean match: matches)
+            if (match)
+                count++;
+        int[] indices = new int[count];
+        for (int index = 0, i = 0; i < count; index++)
+            if (matches[index])
+                indices[i++] = index;
+        return indices;
+    }
+
+
     @Override
     protected Task<Integer> createTask() {
         return new Task<Integer>() {
@@ -314,6 +454,19 @@ public class DataSearch<T> extends Service<Integer> {
         };
     }
 
+    /**The indices of the entries of a search array which match a search string.*/
+    private static final class Narrowing {
+        final String[] data;  //The search array
+        final String searchString;
+        final int[] indices;  //In ascending order
+
+        Narrowing(String[] data, String searchString, int[] indices) {
+            this.data = data;
+            this.searchString = searchString;
+            this.indices = indices;
+        }
+    }
+
     @Override
     protected void cancelled() {
         if (searchTask != null)
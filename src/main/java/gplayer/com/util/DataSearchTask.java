@@ -23,19 +23,26 @@ import java.util.regex.Pattern;
 import java.util.concurrent.RecursiveTask;
 
 /**Concurrently searches through an array of strings to find the most suitable match.
+*A search string is matched literally, by String.indexOf, allocating nothing per string searched,
+*or, if a pattern is given in its place, as a regular expression, by a matcher reset per string.
+*The result pairs the index of the best match with the position of the match within its string.
 *@author Ganiyu Emilandu
 */
 
-class DataSearchTask extends RecursiveTask<Duo<Integer, Matcher>> {
+class DataSearchTask extends RecursiveTask<Duo<Integer, Integer>> {
     private String[] data;
+    private String literal;  //The string to match literally, or null if pattern is matched
     private Pattern pattern;
     private int focusedIndex, start, end, threshold;
+    private boolean[] matches;  //Flags the index of every match, or null if only the best match is sought for
 
     /**Creates a new instance of this class.
     *@param data
     *an array of strings to search through
+    *@param literal
+    *the search string, matched literally, or null if pattern is to be matched
     *@param pattern
-    *the pattern of a search string employed in the search process
+    *the pattern of a search string employed in the search process, if literal is null
     *@param focusedIndex
     *currently active index
     *@param start
@@ -44,16 +51,20 @@ class DataSearchTask extends RecursiveTask<Duo<Integer, Matcher>> {
     *one more index than the end index of the search range
     *@param threshold
     *the average workload of each concurrent search task.
+    *@param matches
+    *flags the index of every match, if not null,
+    *in which case the search runs through the whole range, rather than stop at the first match at the start of a string.
     */
-    DataSearchTask(String[] data, Pattern pattern, int focusedIndex, int start, int end, int threshold) {
+    DataSearchTask(String[] data, String literal, Pattern pattern, int focusedIndex, int start, int end, int threshold, boolean[] matches) {
         this.data = data;
+        this.literal = literal;
         this.pattern = pattern;
         this.focusedIndex = focusedIndex;
         this.start = start;
         this.end = end;
         this.threshold = threshold;
+        this.matches = matches;
     }
-
     private int findBestMatchIndex(int bestMatchIndex, int nextBestMatchIndex) {
         if (focusedIndex == bestMatchIndex || focusedIndex == nextBestMatchIndex)
             return (focusedIndex == bestMatchIndex)? nextBestMatchIndex: bestMatchIndex;
@@ -69,7 +80,7 @@ class DataSearchTask extends RecursiveTask<Duo<Integer, Matcher>> {
         return Math.max(bestMatchIndex, nextBestMatchIndex);
     }
 
-    private Duo<Integer, Matcher> findBestMatch(Duo<Integer, Matcher> bestMatch, Duo<Integer, Matcher> nextBestMatch, boolean compareIndices) {
+    private Duo<Integer, Integer> findBestMatch(Duo<Integer, Integer> bestMatch, Duo<Integer, Integer> nextBestMatch, boolean compareIndices) {
         if (nextBestMatch == null)
             return bestMatch;
         if (bestMatch == null)
@@ -77,8 +88,8 @@ class DataSearchTask extends RecursiveTask<Duo<Integer, Matcher>> {
         //At this point,
         //we are certain that none of the matches is null
         //So, let's get the start indices of the matches
-        int bestMatchStart = bestMatch.getValue().start();  //Match location in bestMatch
-        int nextBestMatchStart = nextBestMatch.getValue().start();  //Match location in nextBestMatch
+        int bestMatchStart = bestMatch.getValue();  //Match location in bestMatch
+        int nextBestMatchStart = nextBestMatch.getValue();  //Match location in nextBestMatch
         //Let's ascertain if the match location in nextBestMatch is less than that of bestMatch.
         //If it is, return the value of nextBestMatch
         if (nextBestMatchStart < bestMatchStart)
@@ -89,29 +100,39 @@ class DataSearchTask extends RecursiveTask<Duo<Integer, Matcher>> {
     }
 
     @Override
-    protected Duo<Integer, Matcher> compute() {
-        Duo<Integer, Matcher> bestMatch = null;
+    protected Duo<Integer, Integer> compute() {
+        Duo<Integer, Integer> bestMatch = null;
         try {
             if (!isCancelled()) {
                 //if the range between start and end indices is less or equal to the threshold,
                 //process sequentially.
                 if ((end - start) <= threshold) {
-                    int length = data.length, index = 0;
+                    int length = data.length, index = 0, bestIndex = -1, bestStart = Integer.MAX_VALUE;
+                    Matcher matcher = (literal == null)? pattern.matcher(""): null;  //Reset for each string
                     for (int i = start; i < end && !isCancelled(); i++) {
-                        Matcher matcher = pattern.matcher(data[(index = (i < length)? i: i - length)].toLowerCase());
-                        if (matcher.find())
-                            bestMatch = findBestMatch(bestMatch, new Duo<Integer, Matcher>(index, matcher), false);
-                        if (bestMatch != null && bestMatch.getValue().start() == 0)
+                        String string = data[(index = (i < length)? i: i - length)];
+                        int matchStart = (literal != null)? string.indexOf(literal): (matcher.reset(string).find())? matcher.start(): -1;
+                        if (matchStart >= 0) {
+                            if (matchStart < bestStart) {
+                                bestIndex = index;
+                                bestStart = matchStart;
+                            }
+                            if (matches != null)
+                                matches[index] = true;
+                        }
+                        if (matches == null && bestStart == 0)
                             //Stop searching
                             break;
                     }  //End of for-loop
+                    if (bestIndex != -1)
+                        bestMatch = new Duo<Integer, Integer>(bestIndex, bestStart);
                 }
                 else {  //Further divide the work
                     //Let's get the mid point between the start and end indices
                     int middle = (start + end) / 2;
                     //Instantiate 2 new processes
-                    DataSearchTask task1 = new DataSearchTask(data, pattern, focusedIndex, start, middle, threshold);
-                    DataSearchTask task2 = new DataSearchTask(data, pattern, focusedIndex, middle, end, threshold);
+                    DataSearchTask task1 = new DataSearchTask(data, literal, pattern, focusedIndex, start, middle, threshold, matches);
+                    DataSearchTask task2 = new DataSearchTask(data, literal, pattern, focusedIndex, middle, end, threshold, matches);
                     //Execute the subtasks asynchronously
                     task1.fork();
                     task2.fork();
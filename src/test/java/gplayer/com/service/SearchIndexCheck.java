@@ -0,0 +1,124 @@
+/**
+*Copyright (C) 2019 Ganiyu Emilandu
+*
+*This program is free software: you can redistribute it and/or modify
+*it under the terms of the GNU General Public License as published by
+*the Free Software Foundation, either version 3 of the License, or
+*(at your option) any later version.
+*
+*THIS PROGRAM IS DISTRIBUTED IN THE HOPE THAT IT WILL BE USEFUL,
+*BUT WITHOUT ANY WARRANTY; WITHOUT EVEN THE IMPLIED WARRANTY OF
+*MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.
+*SEE THE GNU GENERAL PUBLIC LICENSE for MORE DETAILS.
+*
+*You should have received a copy of the GNU General Public License along with this program. If not, see
+*<https://www.gnu.org/licenses/>.
+*
+*/
+
+package gplayer.com.service;
+
+import gplayer.com.service.enumconst.FileFilter;
+import gplayer.com.util.Utility;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**Checks that an indexed playlist search finds the same files as a scan,
+*over random file names and search strings,
+*for each of TrigramIndex, TokenIndex and SuffixIndex, as PlayListSearchAction.findIndexedMatch picks them.
+*Since candidates are verified with the matcher a scan applies, it's enough that every match of a scan is a candidate.
+*Names are built of words which prefix one another, and of apostrophes, digits, symbols and mixed cases,
+*where word splitting and case folding are easiest to get wrong.
+*It's kept out of the application sources, and run by the check target of build.xml,
+*after changing an index, or PlayListSearchAction.matches,
+*or directly, with src/main on the class path for the resources:
+*java gplayer.com.service.SearchIndexCheck [seed]
+*It exits with status 1, naming the seed, search and file, on the first match missed.
+*@author Ganiyu Emilandu
+*/
+
+final class SearchIndexCheck {
+    private static final String[] WORDS = {"the", "beatles", "let", "it", "be", "don't", "stop", "mp3", "a", "abba", "love", "you", "rock'n'roll", "x", "ab", "mix", "remix", "'", "2", "22", "stra\u00dfe", "\u0130stanbul"};
+    private static final String[] SEPARATORS = {" ", "-", "_", " - ", "(", ") ", ".", "'"};
+    private static final String[] EXTENSIONS = {".mp3", ".mp4", ".wav", ""};
+    private static final int FILES = 5000;
+    private static final int QUERIES = 2000;  //Per search parameter
+
+    private SearchIndexCheck() {}
+
+    public static void main(String[] args) {
+        long seed = (args.length > 0)? Long.parseLong(args[0]): System.nanoTime();
+        Random random = new Random(seed);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < FILES; i++)
+            files.add(new File(new File("music"), name(random)));
+        int[] ids = new PlayList(files).toIdArray();
+        TrigramIndex trigramIndex = new TrigramIndex();
+        TokenIndex tokenIndex = new TokenIndex();
+        SuffixIndex suffixIndex = new SuffixIndex();
+        trigramIndex.index(ids);
+        tokenIndex.index(ids);
+        suffixIndex.index(ids);
+        int matches = 0;
+        for (FileFilter filter: new FileFilter[] {FileFilter.CONTAINS, FileFilter.BEGINSWITH, FileFilter.ENDSWITH}) {
+            for (int q = 0; q < QUERIES; q++) {
+                String searchString = searchString(random);
+                BitSet candidates;
+                if (filter == FileFilter.ENDSWITH)
+                    candidates = suffixIndex.candidates(searchString);
+                else if (filter == FileFilter.CONTAINS && searchString.length() >= TrigramIndex.GRAM)
+                    candidates = trigramIndex.candidates(searchString);
+                else
+                    candidates = tokenIndex.candidates(searchString, filter == FileFilter.BEGINSWITH);
+                for (int id: ids) {
+                    String fileName = FileMedia.fileToString(FileRegistry.file(id));
+                    if (filter == FileFilter.ENDSWITH)
+                        fileName = PlayListSearchAction.endOf(fileName, searchString.length());
+                    if (PlayListSearchAction.matches(fileName, searchString, filter)) {
+                        matches++;
+                        if (!candidates.get(id)) {
+                            System.err.println("Seed " + seed + ": " + filter + " search for \"" + searchString + "\" missed " + FileRegistry.file(id).getName());
+                            System.exit(1);
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("Seed " + seed + ": indexed searches found all " + matches + " matches of a scan");
+    }
+
+
+    //Builds a file name of random words
+    private static String name(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(5);
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sb.append((random.nextInt(4) == 0)? word.toUpperCase(): word);
+            if (i < words - 1)
+                sb.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        return sb.append(EXTENSIONS[random.nextInt(EXTENSIONS.length)]).toString();
+    }
+
+
+    //Builds a search string of the letters and digits of random words, or a part of them, of at least one character
+    private static String searchString(Random random) {
+        while (true) {
+            StringBuilder sb = new StringBuilder();
+            int words = 1 + random.nextInt(3);
+            for (int i = 0; i < words; i++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                sb.append((random.nextBoolean())? word.toUpperCase(): word);
+            }
+            String searchString = Utility.retainLettersAndDigits(sb.toString());
+            if (random.nextBoolean() && searchString.length() > 1)
+                searchString = searchString.substring(random.nextInt(searchString.length()), searchString.length() - random.nextInt(2));
+            if (!searchString.isEmpty())
+                return searchString;
+        }
+    }
+}